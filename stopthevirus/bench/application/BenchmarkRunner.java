@@ -0,0 +1,23 @@
+// BenchmarkRunner.java
+
+package application;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs every benchmark with the GC profiler so each result reports ns/op and allocation rate.
+// Any usual JMH option can be passed, e.g. "-p level=Level1" or "-rf json -rff baseline.json".
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include("application\\..*Benchmark")
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,58 @@
+// PatrolBenchmark.java
+
+package application;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of the patrol system with thousands of walkers on a long flat level,
+// updated on one thread or split across the fork-join pool
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatrolBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int walkers;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Entities entities;
+    private double levelWidth;
+
+    @Setup(Level.Iteration)
+    public void spawnWalkers() {
+        TileGrid tiles = new TileGrid();
+        tiles.load(SyntheticLevels.stress(walkers / 2 + 4)); // Two walkers per column
+        levelWidth = tiles.getWidth();
+
+        entities = new Entities(tiles);
+        entities.setParallelThreshold(parallel ? 0 : Integer.MAX_VALUE);
+        for (int i = 0; i < walkers; i++) {
+            entities.spawnWalker(2 * TileGrid.TILE_SIZE + i * TileGrid.TILE_SIZE / 2.0, 10 * TileGrid.TILE_SIZE);
+        }
+        tiles.ensureResident(0, tiles.getColumns() - 1);
+    }
+
+    @Benchmark
+    public int patrol() {
+        entities.patrol(0, levelWidth);
+        return entities.size();
+    }
+}
@@ -0,0 +1,63 @@
+// ProjectileBenchmark.java
+
+package application;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of moving and colliding a steady number of cannonballs
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectileBenchmark {
+
+    @Param({"Level2", "Level5", "Level2x20"})
+    public String level;
+
+    @Param({"10", "100", "1000"})
+    public int cannonBalls;
+
+    private World world;
+
+    @Setup(Level.Iteration)
+    public void loadLevel() {
+        world = new World(cannonBalls); // Room for every cannonball the refill tops up
+        world.loadLevel(level, SyntheticLevels.get(level), null);
+        world.startInvincibility(Integer.MAX_VALUE);
+    }
+
+    // Cannonballs burn out after a few seconds, so keep the count topped up.
+    // Only the balls that expired since the last call are replaced. This runs inside the
+    // measured method, as a per-invocation setup costs more than the update it wraps.
+    private void refill() {
+        int missing = cannonBalls - world.getProjectiles().size();
+        for (int i = 0; i < missing; i++) {
+            double x = (i * 97) % Math.max(world.getLevelWidth(), 1);
+            world.spawnProjectile(x, 400 + (i % 5) * 60, i % 2 == 0 ? 5 : -5, 50);
+        }
+    }
+
+    // Includes advancing the scheduler, which runs the cannonballs' burn-out timers
+    @Benchmark
+    public int updateCannonBalls() {
+        refill();
+        world.getScheduler().advance();
+        world.updateCannonBalls();
+        return world.getProjectiles().size();
+    }
+}
@@ -0,0 +1,83 @@
+// SyntheticLevels.java
+
+package application;
+
+import java.util.Arrays;
+
+// Level layouts for the benchmarks: the built-in levels plus scaled-up stress levels
+final class SyntheticLevels {
+
+    private static final int STRESS_COLUMNS = 2000;
+
+    private SyntheticLevels() {
+    }
+
+    // "Level1".."Level5" are the shipped levels, "Level2x20" repeats Level2 twenty
+    // times side by side, and "Stress" is a long level packed with every entity type
+    static String[] get(String name) {
+        if (name.equals("Stress")) {
+            return stress(STRESS_COLUMNS);
+        }
+        int repeat = name.indexOf('x');
+        if (repeat > 0) {
+            return repeat(builtIn(name.substring(0, repeat)), Integer.parseInt(name.substring(repeat + 1)));
+        }
+        return builtIn(name);
+    }
+
+    static String[] builtIn(String name) {
+        switch (name) {
+            case "Level1":
+                return LevelData.Level1;
+            case "Level2":
+                return LevelData.Level2;
+            case "Level3":
+                return LevelData.Level3;
+            case "Level4":
+                return LevelData.Level4;
+            case "Level5":
+                return LevelData.Level5;
+            default:
+                throw new IllegalArgumentException("Unknown level: " + name);
+        }
+    }
+
+    // Place copies of a level next to each other
+    static String[] repeat(String[] level, int times) {
+        String[] rows = new String[level.length];
+        for (int i = 0; i < level.length; i++) {
+            rows[i] = level[i].repeat(times);
+        }
+        return rows;
+    }
+
+    // Flat ground with walking enemies on every other cell, a cannon every 25
+    // columns and a flying enemy every 10, 14 rows high like the real levels
+    static String[] stress(int columns) {
+        char[][] cells = new char[14][columns];
+        for (char[] row : cells) {
+            Arrays.fill(row, '0');
+        }
+        for (int col = 0; col < columns; col++) {
+            cells[11][col] = '1';
+            cells[12][col] = '1';
+            cells[13][col] = '1';
+            if (col >= 4 && col % 2 == 0) {
+                cells[10][col] = '2';
+            }
+            if (col % 25 == 0 && col > 0) {
+                cells[8][col] = '1';
+                cells[7][col] = '3';
+            }
+            if (col % 10 == 5) {
+                cells[4][col] = '4';
+            }
+        }
+
+        String[] rows = new String[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            rows[i] = new String(cells[i]);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,112 @@
+// WorldBenchmark.java
+
+package application;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of one simulation tick and of its main stages on each level
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+
+    static final int SETTLE_TICKS = 4 * World.TICKS_PER_SECOND; // Let enemies land and cannons fire
+
+    @Param({"Level1", "Level2", "Level3", "Level4", "Level5", "Level2x20", "Level5x20", "Stress"})
+    public String level;
+
+    private World world;
+    private double levelWidth;
+
+    @Setup(Level.Iteration)
+    public void loadLevel() {
+        world = new World();
+        world.loadLevel(level, SyntheticLevels.get(level), null);
+        levelWidth = world.getLevelWidth();
+
+        // Contact damage would eventually reset the level in the middle of a measurement
+        world.startInvincibility(Integer.MAX_VALUE);
+        for (int i = 0; i < SETTLE_TICKS; i++) {
+            world.tick(PlayerInput.NONE);
+        }
+    }
+
+    // The whole per-frame update, what Main runs once per tick
+    @Benchmark
+    public long update() {
+        world.tick(PlayerInput.NONE);
+        return world.getTick();
+    }
+
+    // Walkers packed around the player, so the attack hitboxes always have something to hit
+    @State(Scope.Thread)
+    public static class Targets {
+
+        static final int COUNT = 8;
+        static final int HEALTH = 1000; // Well above one hit, so no target dies during a call
+
+        private final long[] walkers = new long[COUNT];
+        private Components.Health healths;
+
+        // Half beside the player where the sideways attack lands, half under its feet
+        @Setup(Level.Iteration)
+        public void place(WorldBenchmark benchmark) {
+            Player player = benchmark.world.getPlayer();
+            Entities entities = benchmark.world.getEntities();
+            player.setFacingRight(true);
+            for (int i = 0; i < COUNT; i++) {
+                double offset = (i / 2) * 10;
+                walkers[i] = i % 2 == 0
+                    ? entities.spawnWalker(player.getX() + 20 + offset, player.getY() - offset)
+                    : entities.spawnWalker(player.getX() - offset, player.getY() + Player.HEIGHT - offset);
+            }
+            healths = entities.getHealths();
+        }
+
+        // Undo the previous call's hits
+        void restore() {
+            for (long walker : walkers) {
+                healths.setHealth(healths.indexOf(walker), HEALTH);
+            }
+        }
+    }
+
+    @Benchmark
+    public double createAttackHitbox(Targets targets) {
+        targets.restore();
+        world.createAttackHitbox();
+        return world.getPlayer().getVelocityY();
+    }
+
+    @Benchmark
+    public double createDownwardAttackHitbox(Targets targets) {
+        targets.restore();
+        world.createDownwardAttackHitbox();
+        return world.getPlayer().getVelocityY();
+    }
+
+    // Every spawned enemy patrolling, with the camera covering the whole level
+    @Benchmark
+    public int enemyMove() {
+        Entities entities = world.getEntities();
+        entities.patrol(0, levelWidth);
+        entities.aim(0, levelWidth, world.getPlayer().getX());
+        return entities.size();
+    }
+}
@@ -0,0 +1,52 @@
+// AnimationClip.java
+
+package application;
+
+// An immutable run of atlas frames, each held for the same number of ticks.
+// Clips are built once. The frame to show is worked out from the ticks since the clip
+// started, so playing a clip keeps no state in it and allocates nothing.
+public final class AnimationClip {
+
+    private final TextureAtlas.Region[] frames;
+    private final int ticksPerFrame;
+    private final boolean looping;
+
+    public AnimationClip(int ticksPerFrame, boolean looping, TextureAtlas.Region... frames) {
+        if (ticksPerFrame < 1 || frames.length == 0) {
+            throw new IllegalArgumentException("A clip needs at least one frame of at least one tick");
+        }
+        this.frames = frames.clone();
+        this.ticksPerFrame = ticksPerFrame;
+        this.looping = looping;
+    }
+
+    // Frame to show the given number of ticks after the clip started.
+    // A clip that doesn't loop holds its last frame.
+    public TextureAtlas.Region frameAt(long elapsedTicks) {
+        long frame = elapsedTicks / ticksPerFrame;
+        if (looping) {
+            frame %= frames.length;
+        } else if (frame >= frames.length) {
+            frame = frames.length - 1;
+        }
+        return frames[(int) frame];
+    }
+
+    // True once a clip that doesn't loop has shown its last frame for its full time
+    public boolean isFinished(long elapsedTicks) {
+        return !looping && elapsedTicks >= getDuration();
+    }
+
+    // Ticks to play every frame once
+    public int getDuration() {
+        return frames.length * ticksPerFrame;
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    public boolean isLooping() {
+        return looping;
+    }
+}
@@ -0,0 +1,102 @@
+// AssetPreloader.java
+
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decodes the game's assets on background threads before the first frame.
+// Textures end up in the TextureCache, so the game finds them already decoded; other
+// loading work can be queued as plain tasks. Progress can be polled from the FX thread.
+public class AssetPreloader {
+
+    public static final int DEFAULT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final int threads;
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger completed = new AtomicInteger();
+    private long startNanos;
+    private volatile long finishNanos; // Set when the last task finishes
+
+    public AssetPreloader(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    // Queue a texture at its native size
+    public void addTexture(String resourcePath) {
+        addTexture(resourcePath, 0, 0);
+    }
+
+    // Queue a texture at the size the game will ask the TextureCache for
+    public void addTexture(String resourcePath, double width, double height) {
+        tasks.add(() -> TextureCache.get(resourcePath, width, height));
+    }
+
+    // Queue any other loading work, it runs on a worker thread
+    public void addTask(Runnable task) {
+        tasks.add(task);
+    }
+
+    // Start loading everything queued so far
+    public void start() {
+        startNanos = System.nanoTime();
+        if (tasks.isEmpty()) {
+            finishNanos = startNanos;
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), runnable -> {
+            Thread thread = new Thread(runnable, "asset-preloader");
+            thread.setDaemon(true); // Never keep the game from exiting
+            return thread;
+        });
+        for (Runnable task : tasks) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) { // Errors too, e.g. a missing native library, or the task would never be reported
+                    failures.add(e);
+                } finally {
+                    if (completed.incrementAndGet() == tasks.size()) {
+                        finishNanos = System.nanoTime();
+                    }
+                }
+            });
+        }
+        executor.shutdown(); // Threads exit once the queue is drained
+    }
+
+    // Fraction of the queued work finished, from 0 to 1
+    public double getProgress() {
+        return tasks.isEmpty() ? 1 : completed.get() / (double) tasks.size();
+    }
+
+    // True once every task has run, and only after start
+    public boolean isDone() {
+        return finishNanos != 0;
+    }
+
+    public int getThreadCount() {
+        return threads;
+    }
+
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    // Time spent loading, or so far if still running
+    public long getElapsedMillis() {
+        long end = isDone() ? finishNanos : System.nanoTime();
+        return (end - startNanos) / 1_000_000;
+    }
+
+    // Errors thrown by the tasks, the game reports them once loading is done
+    public List<Throwable> getFailures() {
+        return failures;
+    }
+}
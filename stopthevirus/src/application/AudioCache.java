@@ -0,0 +1,115 @@
+// AudioCache.java
+
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+
+// Turns audio resources into URIs a Media can open.
+// Resources on disk are played in place. Resources inside the jar are copied once into a
+// cache folder under a name made from their content, so later runs find the copy already
+// there and an updated file never reuses a stale one. The name comes from the CRC and size
+// the jar already records for the entry, so finding the copy reads none of the file.
+public final class AudioCache {
+
+    private static final Map<String, String> uris = new ConcurrentHashMap<>(); // Resource path to URI, for this run
+    private static Path directory = Paths.get(
+        System.getProperty("stopthevirus.audioCache", System.getProperty("java.io.tmpdir") + "/stopthevirus-audio"));
+
+    private AudioCache() {
+    }
+
+    public static Path getDirectory() {
+        return directory;
+    }
+
+    public static void setDirectory(Path cacheDirectory) {
+        directory = cacheDirectory;
+        uris.clear();
+    }
+
+    // URI of a playable file holding the resource, copied into the cache only if needed
+    public static String uriOf(String resourcePath) throws IOException {
+        String uri = uris.get(resourcePath);
+        if (uri == null) {
+            uri = locate(resourcePath);
+            uris.put(resourcePath, uri);
+        }
+        return uri;
+    }
+
+    private static String locate(String resourcePath) throws IOException {
+        URL url = AudioCache.class.getResource(resourcePath);
+        if (url == null) {
+            throw new IOException("Resource not found: " + resourcePath);
+        }
+        if (url.getProtocol().equals("file")) {
+            return url.toExternalForm(); // Already a file, nothing to copy
+        }
+
+        Path file = directory.resolve(keyOf(url) + extensionOf(resourcePath));
+        if (!Files.exists(file)) {
+            // Copy next to the final name and move it in place, so a crash never leaves half a file
+            Files.createDirectories(directory);
+            Path partial = Files.createTempFile(directory, "audio", ".part");
+            try (InputStream stream = url.openStream()) {
+                Files.copy(stream, partial, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+        }
+        return file.toUri().toString();
+    }
+
+    // Name for the resource content. Jar entries are named from the CRC and size in the jar's
+    // directory, anything else, or an entry without them, from a hash of the content.
+    private static String keyOf(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        if (connection instanceof JarURLConnection) {
+            JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+            if (entry != null && entry.getCrc() != -1 && entry.getSize() != -1) {
+                return String.format("%08x-%d", entry.getCrc(), entry.getSize());
+            }
+        }
+        return hashOf(url);
+    }
+
+    // SHA-256 of the resource content, read without keeping it in memory
+    private static String hashOf(URL url) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JDK provides SHA-256
+        }
+        try (InputStream stream = new DigestInputStream(url.openStream(), digest)) {
+            stream.transferTo(OutputStream.nullOutputStream()); // The digest sees the bytes on the way through
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static String extensionOf(String resourcePath) {
+        int dot = resourcePath.lastIndexOf('.');
+        return dot > resourcePath.lastIndexOf('/') ? resourcePath.substring(dot) : "";
+    }
+}
@@ -5,70 +5,90 @@ package application;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 
-import java.io.File;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import javax.sound.sampled.LineUnavailableException;
 
 public class AudioPlayer {
 
+    // PCM WAV, which javax.sound decodes without any extra library
+    private static final String ENEMY_DEATH_SOUND = "/sprites/enemydeath.wav";
+    private static final String PLAYER_DEATH_SOUND = "/sprites/death.wav";
+
     private MediaPlayer backgroundMusic;
+    private String musicTrack; // Resource playing as background music
+    private double musicVolume = 1.0;
+    // Sound effects go through the mixer when it can decode them, with a MediaPlayer as fallback
+    private SoundMixer mixer;
+    private SoundMixer.Sound enemyDeathClip;
+    private SoundMixer.Sound playerDeathClip;
     private MediaPlayer enemyDeathSound;
     private MediaPlayer playerDeathSound;
 
     public AudioPlayer() {
-        // Extract and load audio files
-        loadBackgroundMusic("/sprites/ost1.mp3");
+        // Load the sound effects, music is loaded when a track is played
         loadSoundEffects();
     }
 
-    // Extract a resource file to the system's temporary directory
-    private File extractResource(String resourcePath) throws Exception {
-        InputStream resourceStream = getClass().getResourceAsStream(resourcePath);
-        if (resourceStream == null) {
-            throw new Exception("Resource not found: " + resourcePath);
+    // Loop a track as background music. Keeps playing if it is already the current track,
+    // otherwise the previous track's player is released first.
+    public void playMusic(String resourcePath) {
+        if (resourcePath.equals(musicTrack) && backgroundMusic != null) {
+            backgroundMusic.play();
+            return;
         }
-        // Create a temporary file
-        File tempFile = File.createTempFile("audio", ".tmp");
-        tempFile.deleteOnExit(); // Automatically delete the file on exit
-        Files.copy(resourceStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        return tempFile;
-    }
+        if (backgroundMusic != null) {
+            backgroundMusic.dispose();
+            backgroundMusic = null;
+        }
+        musicTrack = resourcePath;
 
-    // Load and initialize background music
-    public void loadBackgroundMusic(String filePath) {
         try {
-            File audioFile = extractResource(filePath); // Extract to temp file
-            Media media = new Media(audioFile.toURI().toString()); // Load as a Media object
+            Media media = new Media(AudioCache.uriOf(resourcePath)); // Copied at most once, see AudioCache
             backgroundMusic = new MediaPlayer(media);
             backgroundMusic.setCycleCount(MediaPlayer.INDEFINITE); // Loop the music
+            backgroundMusic.setVolume(musicVolume);
+            backgroundMusic.play();
         } catch (Exception e) {
             System.out.println("Error loading background music: " + e.getMessage());
         }
     }
 
-    // Load sound effects for enemy death and player death
+    // Load sound effects for enemy death and player death.
+    // The mixer's line and thread are only taken if at least one effect decoded.
     private void loadSoundEffects() {
+        enemyDeathClip = decodeSound(ENEMY_DEATH_SOUND);
+        playerDeathClip = decodeSound(PLAYER_DEATH_SOUND);
+        if (enemyDeathClip != null || playerDeathClip != null) {
+            try {
+                mixer = new SoundMixer(Integer.getInteger("stopthevirus.soundVoices", SoundMixer.DEFAULT_VOICES));
+            } catch (LineUnavailableException | IllegalArgumentException e) {
+                System.out.println("Sound mixer unavailable, using media players: " + e.getMessage());
+                enemyDeathClip = null;
+                playerDeathClip = null;
+            }
+        }
+
         try {
-            // Load enemy death sound
-            File enemyDeathFile = extractResource("/sprites/enemydeath.mp3");
-            Media enemyDeathMedia = new Media(enemyDeathFile.toURI().toString());
-            enemyDeathSound = new MediaPlayer(enemyDeathMedia);
+            // Load the effects the mixer couldn't decode or play as media players
+            if (enemyDeathClip == null) {
+                enemyDeathSound = new MediaPlayer(new Media(AudioCache.uriOf(ENEMY_DEATH_SOUND)));
+            }
 
-            // Load player death sound
-            File playerDeathFile = extractResource("/sprites/death.mp3");
-            Media playerDeathMedia = new Media(playerDeathFile.toURI().toString());
-            playerDeathSound = new MediaPlayer(playerDeathMedia);
+            if (playerDeathClip == null) {
+                playerDeathSound = new MediaPlayer(new Media(AudioCache.uriOf(PLAYER_DEATH_SOUND)));
+            }
 
         } catch (Exception e) {
             System.out.println("Error loading sound effects: " + e.getMessage());
         }
     }
 
-    // Play background music
-    public void playBackgroundMusic() {
-        if (backgroundMusic != null) {
-            backgroundMusic.play();
+    // Decode a sound effect for the mixer, null if the format can't be read
+    private SoundMixer.Sound decodeSound(String resourcePath) {
+        try {
+            return SoundMixer.decode(resourcePath);
+        } catch (Exception e) {
+            System.out.println("Could not decode " + resourcePath + " for the mixer: " + e.getMessage());
+            return null;
         }
     }
 
@@ -81,7 +101,9 @@ public class AudioPlayer {
 
     // Play enemy death sound
     public void playEnemyDeathSound() {
-        if (enemyDeathSound != null) {
+        if (enemyDeathClip != null) {
+            mixer.play(enemyDeathClip, 1.0);
+        } else if (enemyDeathSound != null) {
             enemyDeathSound.stop(); // Stop any currently playing sound
             enemyDeathSound.play();
         }
@@ -89,14 +111,29 @@ public class AudioPlayer {
 
     // Play player death sound
     public void playPlayerDeathSound() {
-        if (playerDeathSound != null) {
+        if (playerDeathClip != null) {
+            mixer.play(playerDeathClip, 1.0);
+        } else if (playerDeathSound != null) {
             playerDeathSound.stop(); // Stop any currently playing sound
             playerDeathSound.play();
         }
     }
 
+    // Release the sound effect output
+    public void close() {
+        if (mixer != null) {
+            mixer.close();
+        }
+    }
+
+    // Voices and trigger latency of the effect mixer, for the stats printed on exit
+    public String report() {
+        return mixer != null ? mixer.report() : "Sound: no mixer, effects use media players";
+    }
+
     // Set volume for background music
     public void setVolume(double volume) {
+        musicVolume = volume;
         if (backgroundMusic != null) {
             backgroundMusic.setVolume(volume);
         }
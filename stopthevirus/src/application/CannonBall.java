@@ -1,55 +1,73 @@
 package application;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.Pane;
-import javafx.geometry.Bounds;
-import javafx.util.Duration;
-
 public class CannonBall {
 
-    private final ImageView cannonBallView;
-    private final double speed; // Speed of the cannonball
+    public static final int SIZE = 50; // Width and height of the cannonball
+    private static final int LIFETIME_TICKS = 4 * World.TICKS_PER_SECOND; // Ticks before it burns out
+    private static final int EXPLOSION_TICKS = World.TICKS_PER_SECOND; // Length of the explosion
+
+    private double x;
+    private double y;
+    private double previousX; // Position at the start of the current tick
+    private double speed; // Speed of the cannonball
     private int health; // HP of the cannonball
     private boolean isAlive;
     private boolean isExploding; // Flag to prevent interaction during explosion
-    private Timeline lifetimeTimer; // Timer to track the cannonball's lifetime
+    private final int id; // Index in the pool, keys the cannonball in spatial hashes
+    private final TickScheduler scheduler;
+    private final TickScheduler.Timer timer = new TickScheduler.Timer(this::onTimer); // Burn out, then end of explosion
 
-    public CannonBall(String imagePath, double x, double y, double speed, int health) {
+    public CannonBall(TickScheduler scheduler, int id) {
+        this.scheduler = scheduler;
+        this.id = id;
+    }
+
+    // Prepare the cannonball for a new shot, so pooled instances can be fired again
+    public void reset(double x, double y, double speed, int health) {
         this.speed = speed;
         this.health = health;
         this.isAlive = true;
         this.isExploding = false;
+        this.x = x;
+        this.y = y;
+        this.previousX = x;
+        scheduler.schedule(timer, LIFETIME_TICKS);
+    }
 
-        // Load and scale the cannonball image
-        Image cannonBallImage = new Image(getClass().getResourceAsStream(imagePath), 50, 50, false, true);
-        this.cannonBallView = new ImageView(cannonBallImage);
-        this.cannonBallView.setTranslateX(x);
-        this.cannonBallView.setTranslateY(y);
+    // Take the cannonball out of play, cancelling its pending timer
+    public void retire() {
+        timer.cancel();
+        isAlive = false;
+    }
+
+    public int getId() {
+        return id;
+    }
 
-        // Flip the cannonball image if it moves to the right
-        this.cannonBallView.setScaleX(speed > 0 ? 1 : -1);
+    public double getX() {
+        return x;
+    }
 
-        // Start lifetime timer
-        startLifetimeTimer();
+    public double getY() {
+        return y;
     }
 
-    private void startLifetimeTimer() {
-        lifetimeTimer = new Timeline(new KeyFrame(Duration.seconds(4), event -> destroy()));
-        lifetimeTimer.setCycleCount(1);
-        lifetimeTimer.play();
+    public double getPreviousX() {
+        return previousX;
     }
 
-    public ImageView getView() {
-        return cannonBallView;
+    public double getSpeed() {
+        return speed;
     }
 
     public boolean isAlive() {
         return isAlive;
     }
 
+    public boolean isExploding() {
+        return isExploding;
+    }
+
     public void takeDamage(int damage) {
         if (!isAlive || isExploding) return; // Skip damage if already destroyed or exploding
         health -= damage;
@@ -61,45 +79,37 @@ public class CannonBall {
     private void destroy() {
         if (!isAlive || isExploding) return; // Prevent multiple triggers
         isExploding = true; // Set the exploding state
+        scheduler.schedule(timer, EXPLOSION_TICKS);
+    }
 
-        if (lifetimeTimer != null) {
-            lifetimeTimer.stop();
+    private void onTimer() {
+        if (isExploding) {
+            isAlive = false; // The explosion has played, the cannonball is fully dead
+        } else {
+            destroy(); // Burnt out without hitting anything
         }
-
-        // Show the explosion animation
-        playDeathAnimation();
     }
 
-    private void playDeathAnimation() {
-        // Load the death animation gif
-        Image deathAnimation = new Image(getClass().getResourceAsStream("/sprites/balldeath.gif"), 50, 50, false, true);
-        cannonBallView.setImage(deathAnimation);
-
-        // Create a timeline to remove the cannonball after the animation
-        Timeline removeAnimation = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
-            isAlive = false; // Mark the cannonball as fully dead
-            Pane parent = (Pane) cannonBallView.getParent();
-            if (parent != null) {
-                parent.getChildren().remove(cannonBallView);
-            }
-        }));
-        removeAnimation.setCycleCount(1);
-        removeAnimation.play();
+    // Remember where the cannonball was before this tick moves it
+    public void savePosition() {
+        previousX = x;
     }
 
     public void updatePosition() {
-        if (!isAlive || isExploding) return; // Stop movement if destroyed or exploding
+        if (!isAlive || isExploding) return; // Stop movement while exploding
 
         // Move the cannonball horizontally
-        cannonBallView.setTranslateX(cannonBallView.getTranslateX() + speed);
+        x += speed;
     }
 
-    public boolean checkCollision(ImageView player) {
-        if (!isAlive || isExploding) return false; // No collision during explosion or after death
+    // Overlap test that also counts touching edges, like Bounds.intersects
+    public boolean intersects(double minX, double minY, double width, double height) {
+        return minX <= x + SIZE && minX + width >= x && minY <= y + SIZE && minY + height >= y;
+    }
 
-        Bounds cannonBallBounds = cannonBallView.getBoundsInParent();
-        Bounds playerBounds = player.getBoundsInParent();
+    public boolean checkCollision(Player player) {
+        if (!isAlive || isExploding) return false; // No collision during explosion or after death
 
-        return cannonBallBounds.intersects(playerBounds);
+        return intersects(player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT);
     }
 }
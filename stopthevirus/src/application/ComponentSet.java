@@ -0,0 +1,89 @@
+// ComponentSet.java
+
+package application;
+
+import java.util.Arrays;
+
+// Components of one type, packed into dense arrays for the entities that have them.
+// A sparse array maps an entity's slot to its position in the dense arrays, so adding,
+// finding and removing are O(1). Removal moves the last component into the hole, and the
+// subclasses keep their own arrays in step through grow and move.
+public abstract class ComponentSet {
+
+    private int[] sparse = new int[64]; // Entity slot to dense index + 1, 0 when absent
+    private long[] entities = new long[64]; // Dense index to entity handle
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public long entityAt(int index) {
+        return entities[index];
+    }
+
+    // Dense index of the entity's component, -1 if it has none
+    public int indexOf(long entity) {
+        int slot = EntityRegistry.slotOf(entity);
+        if (slot >= sparse.length) {
+            return -1;
+        }
+        int index = sparse[slot] - 1;
+        return index >= 0 && entities[index] == entity ? index : -1;
+    }
+
+    // Dense index of the component of whichever entity holds the slot, -1 if it has none
+    public int indexOfSlot(int slot) {
+        return slot < sparse.length ? sparse[slot] - 1 : -1;
+    }
+
+    public boolean has(long entity) {
+        return indexOf(entity) >= 0;
+    }
+
+    // Make room for the entity's component and return its dense index
+    protected int add(long entity) {
+        int slot = EntityRegistry.slotOf(entity);
+        if (slot >= sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.max(sparse.length * 2, slot + 1));
+        }
+        if (indexOf(entity) >= 0) {
+            throw new IllegalStateException("Entity already has this component");
+        }
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            grow(size * 2);
+        }
+        entities[size] = entity;
+        sparse[slot] = size + 1;
+        return size++;
+    }
+
+    public boolean remove(long entity) {
+        int index = indexOf(entity);
+        if (index < 0) {
+            return false;
+        }
+        int last = --size;
+        if (index != last) {
+            entities[index] = entities[last];
+            sparse[EntityRegistry.slotOf(entities[index])] = index + 1;
+            move(last, index);
+        }
+        sparse[EntityRegistry.slotOf(entity)] = 0;
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            sparse[EntityRegistry.slotOf(entities[i])] = 0;
+        }
+        size = 0;
+    }
+
+    // Resize the component arrays to the new capacity
+    protected abstract void grow(int capacity);
+
+    // Copy the component at one dense index over another
+    protected abstract void move(int from, int to);
+}
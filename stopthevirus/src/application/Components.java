@@ -0,0 +1,362 @@
+// Components.java
+
+package application;
+
+import java.util.Arrays;
+
+// The component types of the entity system, each stored one array per field.
+// Methods take the dense index from indexOf, which stays valid until the next removal.
+public final class Components {
+
+    private Components() {
+    }
+
+    // Position and size, every entity has one
+    public static final class Body extends ComponentSet {
+        private byte[] kind = new byte[64]; // Entities kind, picks the sprite
+        private double[] x = new double[64]; // Top-left corner
+        private double[] y = new double[64];
+        private double[] previousX = new double[64]; // Position at the start of the tick
+        private double[] previousY = new double[64];
+        private double[] spawnX = new double[64]; // Where the level placed the entity
+        private double[] spawnY = new double[64];
+        private double[] facing = new double[64]; // Horizontal sprite scale, -1 when flipped
+        private int[] width = new int[64];
+        private int[] height = new int[64];
+        private boolean[] active = new boolean[64]; // Seen by the camera, for the systems that care
+
+        public int add(long entity, byte entityKind, double entityX, double entityY, int entityWidth, int entityHeight) {
+            int i = add(entity);
+            kind[i] = entityKind;
+            x[i] = entityX;
+            y[i] = entityY;
+            previousX[i] = entityX;
+            previousY[i] = entityY;
+            spawnX[i] = entityX;
+            spawnY[i] = entityY;
+            facing[i] = 1;
+            width[i] = entityWidth;
+            height[i] = entityHeight;
+            active[i] = false;
+            return i;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            kind = Arrays.copyOf(kind, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            previousX = Arrays.copyOf(previousX, capacity);
+            previousY = Arrays.copyOf(previousY, capacity);
+            spawnX = Arrays.copyOf(spawnX, capacity);
+            spawnY = Arrays.copyOf(spawnY, capacity);
+            facing = Arrays.copyOf(facing, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            active = Arrays.copyOf(active, capacity);
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            kind[to] = kind[from];
+            x[to] = x[from];
+            y[to] = y[from];
+            previousX[to] = previousX[from];
+            previousY[to] = previousY[from];
+            spawnX[to] = spawnX[from];
+            spawnY[to] = spawnY[from];
+            facing[to] = facing[from];
+            width[to] = width[from];
+            height[to] = height[from];
+            active[to] = active[from];
+        }
+
+        // Remember where every body was before this tick moves it
+        public void savePositions() {
+            System.arraycopy(x, 0, previousX, 0, size());
+            System.arraycopy(y, 0, previousY, 0, size());
+        }
+
+        // Overlap test that also counts touching edges, like Bounds.intersects
+        public boolean intersects(int i, double minX, double minY, double otherWidth, double otherHeight) {
+            return minX <= x[i] + width[i] && minX + otherWidth >= x[i]
+                && minY <= y[i] + height[i] && minY + otherHeight >= y[i];
+        }
+
+        public boolean isOnScreen(int i, double cameraLeft, double cameraRight) {
+            return x[i] + width[i] >= cameraLeft && x[i] <= cameraRight;
+        }
+
+        public byte getKind(int i) {
+            return kind[i];
+        }
+
+        public double getX(int i) {
+            return x[i];
+        }
+
+        public void setX(int i, double value) {
+            x[i] = value;
+        }
+
+        public double getY(int i) {
+            return y[i];
+        }
+
+        public void setY(int i, double value) {
+            y[i] = value;
+        }
+
+        public double getPreviousX(int i) {
+            return previousX[i];
+        }
+
+        public double getPreviousY(int i) {
+            return previousY[i];
+        }
+
+        public double getSpawnX(int i) {
+            return spawnX[i];
+        }
+
+        public double getSpawnY(int i) {
+            return spawnY[i];
+        }
+
+        public double getFacing(int i) {
+            return facing[i];
+        }
+
+        public void setFacing(int i, double value) {
+            facing[i] = value;
+        }
+
+        public int getWidth(int i) {
+            return width[i];
+        }
+
+        public int getHeight(int i) {
+            return height[i];
+        }
+
+        public boolean isActive(int i) {
+            return active[i];
+        }
+
+        public void setActive(int i, boolean value) {
+            active[i] = value;
+        }
+    }
+
+    // Walks along its platform and turns around at walls and edges, once the camera has seen it
+    public static final class Patrol extends ComponentSet {
+        private double[] speed = new double[64]; // Pixels per tick
+        private boolean[] movingRight = new boolean[64];
+
+        public int add(long entity, double walkSpeed) {
+            int i = add(entity);
+            speed[i] = walkSpeed;
+            movingRight[i] = false; // Start walking left
+            return i;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            speed = Arrays.copyOf(speed, capacity);
+            movingRight = Arrays.copyOf(movingRight, capacity);
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            speed[to] = speed[from];
+            movingRight[to] = movingRight[from];
+        }
+
+        public double getSpeed(int i) {
+            return speed[i];
+        }
+
+        public boolean isMovingRight(int i) {
+            return movingRight[i];
+        }
+
+        public void setMovingRight(int i, boolean value) {
+            movingRight[i] = value;
+        }
+    }
+
+    // Falls onto the tiles below, once the camera has seen it
+    public static final class Gravity extends ComponentSet {
+        private double[] velocityY = new double[64];
+
+        @Override
+        public int add(long entity) {
+            int i = super.add(entity);
+            velocityY[i] = 0;
+            return i;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            velocityY = Arrays.copyOf(velocityY, capacity);
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            velocityY[to] = velocityY[from];
+        }
+
+        public double getVelocityY(int i) {
+            return velocityY[i];
+        }
+
+        public void setVelocityY(int i, double value) {
+            velocityY[i] = value;
+        }
+    }
+
+    // Hit points, only entities with health can be hurt by the player
+    public static final class Health extends ComponentSet {
+        private int[] health = new int[64];
+
+        public int add(long entity, int startHealth) {
+            int i = add(entity);
+            health[i] = startHealth;
+            return i;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            health = Arrays.copyOf(health, capacity);
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            health[to] = health[from];
+        }
+
+        public int getHealth(int i) {
+            return health[i];
+        }
+
+        public void setHealth(int i, int value) {
+            health[i] = value;
+        }
+
+        public boolean isDead(int i) {
+            return health[i] <= 0;
+        }
+    }
+
+    // Faces the player while on screen and fires a cannonball on a fixed interval
+    public static final class Shooter extends ComponentSet {
+        private int[] interval = new int[64]; // Ticks between shots
+        private int[] remaining = new int[64]; // Ticks until the next shot
+
+        public int add(long entity, int ticksBetweenShots) {
+            int i = add(entity);
+            interval[i] = ticksBetweenShots;
+            remaining[i] = ticksBetweenShots;
+            return i;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            interval = Arrays.copyOf(interval, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            interval[to] = interval[from];
+            remaining[to] = remaining[from];
+        }
+
+        // Count down one tick, true when the shooter is due to fire
+        public boolean countDown(int i) {
+            if (--remaining[i] > 0) {
+                return false;
+            }
+            remaining[i] = interval[i];
+            return true;
+        }
+    }
+
+    // Hurts the player on contact
+    public static final class Hostile extends ComponentSet {
+        private int[] contactDamage = new int[64];
+
+        public int add(long entity, int damage) {
+            int i = add(entity);
+            contactDamage[i] = damage;
+            return i;
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            contactDamage = Arrays.copyOf(contactDamage, capacity);
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            contactDamage[to] = contactDamage[from];
+        }
+
+        public int getContactDamage(int i) {
+            return contactDamage[i];
+        }
+    }
+
+    // Does something when the player touches it
+    public static final class Trigger extends ComponentSet {
+        // Actions
+        public static final byte LOAD_LEVEL = 0;
+        public static final byte VICTORY = 1;
+
+        private byte[] action = new byte[64];
+        private String[] targetLevel = new String[64]; // Level to load, for LOAD_LEVEL
+
+        public int add(long entity, byte triggerAction, String level) {
+            int i = add(entity);
+            action[i] = triggerAction;
+            targetLevel[i] = level;
+            return i;
+        }
+
+        @Override
+        public boolean remove(long entity) {
+            int last = size() - 1;
+            boolean removed = super.remove(entity);
+            if (removed) {
+                targetLevel[last] = null; // Don't keep the name alive
+            }
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(targetLevel, 0, size(), null);
+            super.clear();
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            action = Arrays.copyOf(action, capacity);
+            targetLevel = Arrays.copyOf(targetLevel, capacity);
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            action[to] = action[from];
+            targetLevel[to] = targetLevel[from];
+        }
+
+        public byte getAction(int i) {
+            return action[i];
+        }
+
+        public String getTargetLevel(int i) {
+            return targetLevel[i];
+        }
+    }
+}
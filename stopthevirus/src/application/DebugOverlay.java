@@ -0,0 +1,94 @@
+// DebugOverlay.java
+
+package application;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+// Frame rate, tick cost per phase and scene size, drawn over the game.
+// Turning it on enables the profiler; while it is off nothing is timed or drawn.
+// The text is rebuilt twice a second from the frames since the last refresh.
+public class DebugOverlay {
+
+    private static final long REFRESH_NANOS = 500_000_000L;
+
+    private final FrameProfiler profiler;
+    private final World world;
+    private final GameRenderer renderer;
+    private final Pane overlay = new Pane();
+    private final Text text = new Text();
+    private final StringBuilder builder = new StringBuilder();
+    private long windowStart; // Time of the last refresh, 0 to restart the window
+    private int frames; // Frames rendered since the last refresh
+
+    public DebugOverlay(Pane uiRoot, FrameProfiler profiler, World world, GameRenderer renderer) {
+        this.profiler = profiler;
+        this.world = world;
+        this.renderer = renderer;
+
+        Rectangle background = new Rectangle(430, 330, Color.rgb(0, 0, 0, 0.6));
+        background.setTranslateX(840);
+        background.setTranslateY(10);
+        text.setFont(Font.font("Monospaced", 14));
+        text.setFill(Color.WHITE);
+        text.setTranslateX(850);
+        text.setTranslateY(30);
+
+        overlay.getChildren().addAll(background, text);
+        overlay.setMouseTransparent(true);
+        overlay.setVisible(false);
+        uiRoot.getChildren().add(overlay);
+    }
+
+    public boolean isVisible() {
+        return overlay.isVisible();
+    }
+
+    public void toggle() {
+        boolean visible = !overlay.isVisible();
+        overlay.setVisible(visible);
+        profiler.setEnabled(visible);
+        profiler.reset();
+        windowStart = 0;
+        frames = 0;
+        if (visible) {
+            text.setText("Collecting...");
+        }
+    }
+
+    // Call once per rendered frame
+    public void update(long now) {
+        if (!overlay.isVisible()) {
+            return;
+        }
+        if (windowStart == 0) {
+            windowStart = now;
+            return;
+        }
+        frames++;
+        if (now - windowStart < REFRESH_NANOS) {
+            return;
+        }
+
+        LatencyHistogram tick = profiler.getHistogram(FrameProfiler.TICK);
+        builder.setLength(0);
+        builder.append(String.format("FPS %.0f   tick %.1f us   p99 %.1f us%n",
+            frames * 1e9 / (now - windowStart), tick.getMean() / 1000, tick.getPercentile(0.99) / 1000.0));
+        builder.append(String.format("nodes %d   entities %d   projectiles %d%n%n",
+            renderer.getLiveNodeCount(), world.getEntities().size(), world.getProjectiles().size()));
+        builder.append(String.format("%-12s %9s %9s %9s%n", "phase", "mean us", "p99 us", "max us"));
+        for (int phase = 0; phase < FrameProfiler.PHASES; phase++) {
+            LatencyHistogram histogram = profiler.getHistogram(phase);
+            builder.append(String.format("%-12s %9.1f %9.1f %9.1f%n", FrameProfiler.nameOf(phase),
+                histogram.getMean() / 1000, histogram.getPercentile(0.99) / 1000.0, histogram.getMax() / 1000.0));
+        }
+        text.setText(builder.toString());
+
+        profiler.reset();
+        windowStart = now;
+        frames = 0;
+    }
+}
@@ -0,0 +1,379 @@
+// Entities.java
+
+package application;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+
+// The World's entities: enemies, portals and finish lines.
+// An entity is only a handle from the registry, what it does comes from the components
+// it has, and each system below runs over one component set in dense order. A new kind of
+// entity is a new combination of components in a spawn method, not a subclass.
+public class Entities {
+
+    // Entity kinds, for the renderer and the flight recorder
+    public static final byte WALKER = 0;
+    public static final byte CANNON = 1;
+    public static final byte FLYER = 2;
+    public static final byte PORTAL = 3;
+    public static final byte FINISH_LINE = 4;
+    private static final String[] KIND_NAMES = {"Walker", "Cannon", "Flyer", "Portal", "FinishLine"};
+
+    public static final int ENEMY_SIZE = 60; // Width and height of every enemy
+    public static final int PORTAL_SIZE = 60;
+    public static final int FINISH_LINE_SIZE = 120;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024; // Walkers before the patrol goes parallel, see PatrolBenchmark
+    private static final int BATCH_SIZE = 256; // Walkers per fork-join task
+    private static final int ENEMY_HEALTH = 50;
+    private static final int CONTACT_DAMAGE = 10;
+    private static final double WALK_SPEED = 1.5;
+    private static final double GRAVITY = 0.5;
+    private static final int SHOOT_INTERVAL = 3 * World.TICKS_PER_SECOND;
+    private static final double SHOT_SPEED = 5;
+    private static final int SHOT_HEALTH = 50;
+
+    private final EntityRegistry registry = new EntityRegistry();
+    private final Components.Body bodies = new Components.Body();
+    private final Components.Patrol patrols = new Components.Patrol();
+    private final Components.Gravity gravities = new Components.Gravity();
+    private final Components.Health healths = new Components.Health();
+    private final Components.Shooter shooters = new Components.Shooter();
+    private final Components.Hostile hostiles = new Components.Hostile();
+    private final Components.Trigger triggers = new Components.Trigger();
+    private final List<ComponentSet> componentSets = List.of(bodies, patrols, gravities, healths, shooters, hostiles, triggers);
+    private final SpatialHash hostileCells = new SpatialHash(); // Hostile bodies by entity slot
+
+    private final TileGrid tiles;
+    private final TileCollider collider;
+    private int[] walkerBodies = new int[64]; // Body and patrol indices of the walkers to move this tick
+    private int[] walkerPatrols = new int[64];
+    private int parallelThreshold = Integer.getInteger("stopthevirus.parallelEnemies", defaultParallelThreshold());
+
+    public Entities(TileGrid tiles) {
+        this.tiles = tiles;
+        this.collider = new TileCollider(tiles);
+    }
+
+    // A pool with a single worker can't share the work, so only split it when there are more
+    private static int defaultParallelThreshold() {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? DEFAULT_PARALLEL_THRESHOLD : Integer.MAX_VALUE;
+    }
+
+    public Components.Body getBodies() {
+        return bodies;
+    }
+
+    public Components.Health getHealths() {
+        return healths;
+    }
+
+    public Components.Hostile getHostiles() {
+        return hostiles;
+    }
+
+    public Components.Trigger getTriggers() {
+        return triggers;
+    }
+
+    public int size() {
+        return registry.getLiveCount();
+    }
+
+    // One more than the highest entity slot in use, for arrays indexed by EntityRegistry.slotOf
+    public int getSlotCount() {
+        return registry.getSlotCount();
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public static String kindName(byte kind) {
+        return KIND_NAMES[kind];
+    }
+
+    // Archetypes
+
+    // Patrols its platform, settles onto it if spawned above it, and hurts on contact
+    public long spawnWalker(double x, double y) {
+        long entity = spawnEnemy(WALKER, x, y);
+        patrols.add(entity, WALK_SPEED);
+        gravities.add(entity);
+        healths.add(entity, ENEMY_HEALTH);
+        return entity;
+    }
+
+    // Fires at the player while on screen and can't be hurt
+    public long spawnCannon(double x, double y) {
+        long entity = spawnEnemy(CANNON, x, y);
+        bodies.setFacing(bodies.indexOf(entity), -1); // Faces left until it sees the player
+        shooters.add(entity, SHOOT_INTERVAL);
+        return entity;
+    }
+
+    // Hovers in place
+    public long spawnFlyer(double x, double y) {
+        long entity = spawnEnemy(FLYER, x, y);
+        healths.add(entity, ENEMY_HEALTH);
+        return entity;
+    }
+
+    public long spawnPortal(double x, double y, String targetLevel) {
+        long entity = registry.create();
+        bodies.add(entity, PORTAL, x, y, PORTAL_SIZE, PORTAL_SIZE);
+        triggers.add(entity, Components.Trigger.LOAD_LEVEL, targetLevel);
+        return entity;
+    }
+
+    public long spawnFinishLine(double x, double y) {
+        long entity = registry.create();
+        bodies.add(entity, FINISH_LINE, x, y, FINISH_LINE_SIZE, FINISH_LINE_SIZE);
+        triggers.add(entity, Components.Trigger.VICTORY, null);
+        return entity;
+    }
+
+    private long spawnEnemy(byte kind, double x, double y) {
+        long entity = registry.create();
+        bodies.add(entity, kind, x, y, ENEMY_SIZE, ENEMY_SIZE);
+        hostiles.add(entity, CONTACT_DAMAGE);
+        hostileCells.insert(EntityRegistry.slotOf(entity), x, y, ENEMY_SIZE, ENEMY_SIZE);
+        return entity;
+    }
+
+    // Add gravity to an entity, so it falls once the camera has seen it
+    public void addGravity(long entity) {
+        gravities.add(entity);
+    }
+
+    // Destroy an entity and its components, false if the handle is stale
+    public boolean destroy(long entity) {
+        if (!registry.isAlive(entity)) {
+            return false;
+        }
+        for (int i = 0; i < componentSets.size(); i++) {
+            componentSets.get(i).remove(entity);
+        }
+        hostileCells.remove(EntityRegistry.slotOf(entity));
+        return registry.destroy(entity);
+    }
+
+    public void clear() {
+        for (int i = 0; i < componentSets.size(); i++) {
+            componentSets.get(i).clear();
+        }
+        hostileCells.clear();
+        registry.clear();
+    }
+
+    public boolean isAlive(long entity) {
+        return registry.isAlive(entity);
+    }
+
+    // True once the entity's health has run out, entities without health never die
+    public boolean isDead(long entity) {
+        int i = healths.indexOf(entity);
+        return i >= 0 && healths.isDead(i);
+    }
+
+    // Damage a hostile entity deals to the player on contact, 0 for the others
+    public int getContactDamage(long entity) {
+        int i = hostiles.indexOf(entity);
+        return i >= 0 ? hostiles.getContactDamage(i) : 0;
+    }
+
+    // Systems
+
+    public void savePositions() {
+        bodies.savePositions();
+    }
+
+    // Gravity: entities the camera has seen fall until they land on a tile
+    public void applyGravity() {
+        for (int g = 0; g < gravities.size(); g++) {
+            long entity = gravities.entityAt(g);
+            int i = bodies.indexOf(entity);
+            if (!bodies.isActive(i) || isDead(entity)) {
+                continue;
+            }
+            double velocityY = gravities.getVelocityY(g) + GRAVITY;
+            double dy = collider.sweepY(bodies.getX(i), bodies.getY(i), bodies.getWidth(i), bodies.getHeight(i), velocityY);
+            bodies.setY(i, bodies.getY(i) + dy);
+            gravities.setVelocityY(g, collider.hasHit() ? 0 : velocityY);
+            moved(i);
+        }
+    }
+
+    // Patrol: walkers activate when the camera reaches them, then walk until a wall or the
+    // edge of their platform and turn around. With enough walkers active the work is split
+    // across the fork-join pool.
+    public void patrol(double cameraLeft, double cameraRight) {
+        if (walkerBodies.length < patrols.size()) {
+            walkerBodies = new int[Math.max(walkerBodies.length * 2, patrols.size())];
+            walkerPatrols = new int[walkerBodies.length];
+        }
+        int walkerCount = 0;
+        double minX = Double.MAX_VALUE; // Range the active walkers cover
+        double maxX = -Double.MAX_VALUE;
+
+        for (int p = 0; p < patrols.size(); p++) {
+            long entity = patrols.entityAt(p);
+            if (isDead(entity)) {
+                continue;
+            }
+            int i = bodies.indexOf(entity);
+            if (bodies.isOnScreen(i, cameraLeft, cameraRight)) {
+                bodies.setActive(i, true);
+            }
+            if (bodies.isActive(i)) {
+                walkerBodies[walkerCount] = i;
+                walkerPatrols[walkerCount++] = p;
+                minX = Math.min(minX, bodies.getX(i));
+                maxX = Math.max(maxX, bodies.getX(i) + bodies.getWidth(i));
+            }
+        }
+
+        if (walkerCount < parallelThreshold) {
+            walk(0, walkerCount);
+        } else {
+            // The tiles decode lazily, decode the walkers' columns first so the threads only read
+            tiles.ensureResident(TileGrid.firstOverlapping(minX - WALK_SPEED) - 1, TileGrid.lastOverlapping(maxX + WALK_SPEED) + 1);
+            ForkJoinPool.commonPool().invoke(new WalkerBatch(0, walkerCount));
+        }
+
+        // The hash isn't safe to share between the batches, catch it up afterwards
+        for (int w = 0; w < walkerCount; w++) {
+            moved(walkerBodies[w]);
+        }
+    }
+
+    // Keep a hostile body's cells up to date after it moved
+    private void moved(int i) {
+        int slot = EntityRegistry.slotOf(bodies.entityAt(i));
+        if (hostileCells.contains(slot)) {
+            hostileCells.update(slot, bodies.getX(i), bodies.getY(i), bodies.getWidth(i), bodies.getHeight(i));
+        }
+    }
+
+    // Splits the walkers in halves until a batch is small enough to move directly
+    private final class WalkerBatch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        WalkerBatch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                walk(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new WalkerBatch(from, middle), new WalkerBatch(middle, to));
+        }
+    }
+
+    // Each walker only writes its own components, so batches can run at the same time
+    private void walk(int from, int to) {
+        for (int w = from; w < to; w++) {
+            int i = walkerBodies[w];
+            int p = walkerPatrols[w];
+            boolean movingRight = patrols.isMovingRight(p);
+            double speed = patrols.getSpeed(p);
+            double nextX = bodies.getX(i) + (movingRight ? speed : -speed);
+            double futureRight = nextX + bodies.getWidth(i);
+            double top = bodies.getY(i);
+            double bottom = top + bodies.getHeight(i);
+
+            // Turn around at walls, and where there is no floor under the next position
+            // (a tile top up to 5px above the feet)
+            boolean blocked = tiles.overlapsSolid(nextX, top, futureRight, bottom)
+                || !tiles.isSolidInRange(
+                    TileGrid.firstOverlapping(nextX),
+                    (int) Math.ceil((bottom - 5) / TileGrid.TILE_SIZE),
+                    TileGrid.lastOverlapping(futureRight),
+                    (int) Math.floor(bottom / TileGrid.TILE_SIZE));
+            if (blocked) {
+                patrols.setMovingRight(p, !movingRight);
+                bodies.setFacing(i, movingRight ? -1 : 1);
+            } else {
+                bodies.setX(i, nextX);
+            }
+        }
+    }
+
+    // Shooter aim: active while on screen, always facing the player
+    public void aim(double cameraLeft, double cameraRight, double playerX) {
+        for (int s = 0; s < shooters.size(); s++) {
+            int i = bodies.indexOf(shooters.entityAt(s));
+            bodies.setActive(i, bodies.isOnScreen(i, cameraLeft, cameraRight));
+            bodies.setFacing(i, playerX > bodies.getX(i) ? 1 : -1);
+        }
+    }
+
+    // Shooter fire: count down every shooter, the active ones that are due fire a cannonball
+    // in the direction they face. Runs once per tick, right after the World's timers.
+    public void shoot(World world) {
+        for (int s = 0; s < shooters.size(); s++) {
+            if (!shooters.countDown(s)) {
+                continue;
+            }
+            int i = bodies.indexOf(shooters.entityAt(s));
+            double x = bodies.getX(i);
+            if (!bodies.isActive(i) || x + bodies.getWidth(i) < 0 || x > world.getLevelWidth()) {
+                continue;
+            }
+            double facing = bodies.getFacing(i);
+            world.spawnProjectile(
+                x + (facing > 0 ? 20 : -20),
+                bodies.getY(i) + bodies.getHeight(i) / 4.0,
+                facing > 0 ? SHOT_SPEED : -SHOT_SPEED,
+                SHOT_HEALTH);
+        }
+    }
+
+    // Damageable: hurt an entity with health, true if this hit killed it.
+    // Entities without health, like cannons, can't be hurt.
+    public boolean damage(long entity, int amount) {
+        int i = healths.indexOf(entity);
+        if (i < 0 || healths.isDead(i)) {
+            return false;
+        }
+        healths.setHealth(i, healths.getHealth(i) - amount);
+        return healths.isDead(i);
+    }
+
+    // Every hostile entity overlapping the box, dead ones only if asked for. Only the
+    // hostiles in the hash cells under the box are tested, not every one in the level.
+    // The action must not destroy or move entities, schedule that for later instead.
+    public void forEachHostileIn(double minX, double minY, double width, double height, boolean includeDead, LongConsumer action) {
+        int count = hostileCells.query(minX, minY, width, height);
+        for (int r = 0; r < count; r++) {
+            int i = bodies.indexOfSlot(hostileCells.getResult(r));
+            long entity = bodies.entityAt(i);
+            if (bodies.intersects(i, minX, minY, width, height) && (includeDead || !isDead(entity))) {
+                action.accept(entity);
+            }
+        }
+    }
+
+    // Trigger: the first trigger with the action that overlaps the box, or EntityRegistry.NONE
+    public long findTrigger(byte action, double minX, double minY, double width, double height) {
+        for (int t = 0; t < triggers.size(); t++) {
+            long entity = triggers.entityAt(t);
+            if (triggers.getAction(t) == action && bodies.intersects(bodies.indexOf(entity), minX, minY, width, height)) {
+                return entity;
+            }
+        }
+        return EntityRegistry.NONE;
+    }
+}
@@ -0,0 +1,87 @@
+// EntityRegistry.java
+
+package application;
+
+import java.util.Arrays;
+
+// Hands out entity handles. A handle packs a slot index with the slot's generation, which
+// changes every time the slot is freed, so a handle kept after its entity was destroyed
+// never matches the next entity in that slot. Create and destroy are O(1), freed slots
+// are reused first so arrays indexed by slot stay small.
+public class EntityRegistry {
+
+    public static final long NONE = 0; // Never a live handle
+
+    // Odd while the slot holds an entity, even while it is free
+    private int[] generations = new int[64];
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int slotCount; // Slots handed out so far
+    private int liveCount;
+
+    public long create() {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == generations.length) {
+                generations = Arrays.copyOf(generations, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        generations[slot]++;
+        liveCount++;
+        return handle(slot, generations[slot]);
+    }
+
+    // Free the entity's slot, false if the handle is stale
+    public boolean destroy(long entity) {
+        if (!isAlive(entity)) {
+            return false;
+        }
+        int slot = slotOf(entity);
+        generations[slot]++;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        liveCount--;
+        return true;
+    }
+
+    public boolean isAlive(long entity) {
+        int slot = slotOf(entity);
+        int generation = generationOf(entity);
+        return slot >= 0 && slot < slotCount && (generation & 1) != 0 && generations[slot] == generation;
+    }
+
+    // Destroy every entity, their handles all go stale
+    public void clear() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if ((generations[slot] & 1) != 0) {
+                destroy(handle(slot, generations[slot]));
+            }
+        }
+    }
+
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    // One more than the highest slot in use, the size for arrays indexed by slot
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public static int slotOf(long entity) {
+        return (int) entity;
+    }
+
+    public static int generationOf(long entity) {
+        return (int) (entity >>> 32);
+    }
+
+    private static long handle(int slot, int generation) {
+        return (long) generation << 32 | (slot & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,104 @@
+// FrameProfiler.java
+
+package application;
+
+import java.util.Arrays;
+
+// Times the phases of a tick and a frame into one histogram each.
+// Disabled by default, then every call returns after checking a flag, so the timers can
+// stay in the game loop without slowing it down.
+public class FrameProfiler {
+
+    // Phases of World.tick, in the order they run
+    public static final int TIMERS = 0;
+    public static final int INPUT = 1;
+    public static final int ATTACK = 2;
+    public static final int PHYSICS = 3;
+    public static final int STREAMING = 4;
+    public static final int ENEMIES = 5;
+    public static final int PROJECTILES = 6;
+    public static final int TRIGGERS = 7;
+    // Phases of a rendered frame in Main
+    public static final int TICK = 8;
+    public static final int ANIMATION = 9;
+    public static final int RENDER = 10;
+    public static final int FRAME = 11;
+    public static final int PHASES = 12;
+
+    private static final String[] NAMES = {
+        "timers", "input", "attack", "physics", "streaming", "enemies", "projectiles", "triggers",
+        "tick", "animation", "render", "frame"
+    };
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES];
+    private final long[] lastNanos = new long[PHASES]; // Phase times of the current sequence
+    private boolean enabled;
+    private boolean timing; // Marks of the current sequence are timed
+    private long markNanos; // End of the last phase marked
+
+    public FrameProfiler() {
+        for (int i = 0; i < PHASES; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Start timing a sequence of phases, each ended with mark. With force the phases are
+    // timed for getLastNanos even while the histograms are disabled.
+    public void begin(boolean force) {
+        timing = enabled || force;
+        if (timing) {
+            Arrays.fill(lastNanos, 0);
+            markNanos = System.nanoTime();
+        }
+    }
+
+    // End a phase started by begin or the previous mark
+    public void mark(int phase) {
+        if (timing) {
+            long now = System.nanoTime();
+            lastNanos[phase] = now - markNanos;
+            if (enabled) {
+                histograms[phase].record(lastNanos[phase]);
+            }
+            markNanos = now;
+        }
+    }
+
+    // Time of a phase in the last sequence, 0 if it wasn't timed or didn't run
+    public long getLastNanos(int phase) {
+        return lastNanos[phase];
+    }
+
+    // Start timing one phase, pass the result to record
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void record(int phase, long startNanos) {
+        if (enabled && startNanos != 0) {
+            histograms[phase].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public LatencyHistogram getHistogram(int phase) {
+        return histograms[phase];
+    }
+
+    public static String nameOf(int phase) {
+        return NAMES[phase];
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+}
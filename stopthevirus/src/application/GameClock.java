@@ -0,0 +1,73 @@
+// GameClock.java
+
+package application;
+
+public class GameClock {
+
+    public static final int DEFAULT_TICK_RATE = 60; // Simulation ticks per second
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5; // Most ticks run for a single frame
+
+    private final int tickRate;
+    private final long tickNanos;
+    private final int maxCatchUpTicks;
+
+    private long lastTime = -1; // Timestamp of the previous frame, -1 before the first one
+    private long accumulator; // Frame time not yet consumed by ticks
+    private long tick; // Number of ticks run so far
+
+    public GameClock() {
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_CATCH_UP_TICKS);
+    }
+
+    public GameClock(int tickRate, int maxCatchUpTicks) {
+        if (tickRate <= 0 || maxCatchUpTicks <= 0) {
+            throw new IllegalArgumentException("Tick rate and catch-up limit must be positive");
+        }
+        this.tickRate = tickRate;
+        this.tickNanos = 1_000_000_000L / tickRate;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    // Feed the frame timestamp in nanoseconds and get the number of ticks to simulate
+    public int advance(long now) {
+        if (lastTime < 0) {
+            lastTime = now;
+            return 0;
+        }
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        int ticks = (int) Math.min(accumulator / tickNanos, maxCatchUpTicks);
+        accumulator -= ticks * tickNanos;
+
+        // Drop time we could not catch up on (stalls, pauses) instead of running it later
+        if (accumulator >= tickNanos) {
+            accumulator = 0;
+        }
+        tick += ticks;
+        return ticks;
+    }
+
+    // Fraction of a tick elapsed since the last one, used to interpolate rendering
+    public double getAlpha() {
+        return (double) accumulator / tickNanos;
+    }
+
+    // Forget the previous frame so the next one starts a fresh interval, e.g. after a pause
+    public void reset() {
+        lastTime = -1;
+        accumulator = 0;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public double getTickSeconds() {
+        return 1.0 / tickRate;
+    }
+}
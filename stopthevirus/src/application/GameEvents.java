@@ -0,0 +1,168 @@
+// GameEvents.java
+
+package application;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Java Flight Recorder events for the game, shown under "Stop The Virus" in a recording.
+// Events are only written while a recording has them enabled, otherwise creating and
+// committing one is optimised away. Record a session with:
+//   java -XX:StartFlightRecording=filename=game.jfr,settings=profile ... application.Main
+public final class GameEvents {
+
+    private static final String CATEGORY = "Stop The Virus";
+
+    private GameEvents() {
+    }
+
+    @Name("application.LevelLoad")
+    @Label("Level Load")
+    @Description("Loading a level into the World, including the listeners rebuilding the scene")
+    @Category({CATEGORY, "World"})
+    @StackTrace(false)
+    public static final class LevelLoad extends Event {
+        @Label("Level")
+        String level;
+
+        @Label("Columns")
+        int columns;
+
+        @Label("Enemies")
+        @Description("Enemies spawned in the windows around the starting camera")
+        int enemies;
+    }
+
+    @Name("application.SceneBuild")
+    @Label("Scene Build")
+    @Description("From a level load until its first frame is rendered")
+    @Category({CATEGORY, "Rendering"})
+    @StackTrace(false)
+    public static final class SceneBuild extends Event {
+        @Label("Level")
+        String level;
+
+        @Label("Nodes")
+        @Description("Level nodes in the scene graph in the first frame")
+        int nodes;
+    }
+
+    @Name("application.Tick")
+    @Label("Tick")
+    @Description("One simulation tick, with the time spent in each phase")
+    @Category({CATEGORY, "World"})
+    @StackTrace(false)
+    public static final class Tick extends Event {
+        @Label("Tick")
+        long tick;
+
+        @Label("Timers")
+        @Timespan
+        long timers;
+
+        @Label("Input")
+        @Timespan
+        long input;
+
+        @Label("Attack")
+        @Timespan
+        long attack;
+
+        @Label("Physics")
+        @Timespan
+        long physics;
+
+        @Label("Streaming")
+        @Timespan
+        long streaming;
+
+        @Label("Enemies")
+        @Timespan
+        long enemies;
+
+        @Label("Projectiles")
+        @Timespan
+        long projectiles;
+
+        @Label("Triggers")
+        @Timespan
+        long triggers;
+    }
+
+    @Name("application.AssetDecode")
+    @Label("Asset Decode")
+    @Description("Decoding a texture into the TextureCache")
+    @Category({CATEGORY, "Assets"})
+    public static final class AssetDecode extends Event {
+        @Label("Resource")
+        String resource;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("application.EnemyDeath")
+    @Label("Enemy Death")
+    @Category({CATEGORY, "Gameplay"})
+    @StackTrace(false)
+    public static final class EnemyDeath extends Event {
+        @Label("Kind")
+        String type;
+
+        @Label("X")
+        double x;
+
+        @Label("Y")
+        double y;
+
+        @Label("Tick")
+        long tick;
+    }
+
+    @Name("application.ProjectileSpawn")
+    @Label("Projectile Spawn")
+    @Category({CATEGORY, "Gameplay"})
+    @StackTrace(false)
+    public static final class ProjectileSpawn extends Event {
+        @Label("X")
+        double x;
+
+        @Label("Y")
+        double y;
+
+        @Label("Live Projectiles")
+        int live;
+
+        @Label("Pool Exhausted")
+        @Description("True if the pool had no free cannonball and the shot was skipped")
+        boolean exhausted;
+    }
+
+    @Name("application.ProjectileDespawn")
+    @Label("Projectile Despawn")
+    @Category({CATEGORY, "Gameplay"})
+    @StackTrace(false)
+    public static final class ProjectileDespawn extends Event {
+        @Label("X")
+        double x;
+
+        @Label("Y")
+        double y;
+
+        @Label("Live Projectiles")
+        int live;
+    }
+}
@@ -0,0 +1,376 @@
+// GameRenderer.java
+
+package application;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps the JavaFX scene graph in sync with the World, once per rendered frame
+public class GameRenderer implements WorldListener {
+
+    private static final String BLOCK_SPRITE = "/sprites/blocktexture.png";
+    private static final String ENEMY_SPRITE = "/sprites/enemy1.png";
+    private static final String CANNON_SPRITE = "/sprites/StopVirus_EnemyCannon.png";
+    private static final String FLYING_ENEMY_SPRITE = "/sprites/StopVirus_Flying-Enemy.gif";
+    private static final String CANNONBALL_SPRITE = "/sprites/StopVirus_CannonBall.gif";
+    private static final String CANNONBALL_DEATH_SPRITE = "/sprites/balldeath.gif";
+    private static final String PORTAL_SPRITE = "/sprites/portal.gif";
+    private static final String FINISH_LINE_SPRITE = "/sprites/cpu.png";
+
+    private final double Sky_Layer_scroll = 0.3;
+    private final double Deep_Layer_scroll = 0.15;
+    private final double Shallow_Layer_scroll = 0.18;
+    private static final String Sky_layer = "Sky_layer.png";
+    private static final String Deep_layer = "Deep_layer.png";
+    private static final String Shallow_layer = "Shallow_layer.png";
+
+    private final World world;
+    private final Pane gameRoot;
+    private final TextureAtlas atlas = new TextureAtlas(); // Still sprites, shown through viewports
+    private final ImageView playerView;
+    private final SpriteAnimator spriteAnimator; // Animations follow World.getTick, which carries on across levels
+    private final TileMapRenderer tileMap = new TileMapRenderer(BLOCK_SPRITE);
+    private final ViewportCuller entityCuller = new ViewportCuller(); // Enemies, portals and finish lines
+    private final ViewportCuller projectileCuller = new ViewportCuller(); // Cannonballs, drawn above the player
+    private ImageView[] entityViews = new ImageView[64]; // By entity slot
+    private final Map<CannonBall, ImageView> projectileViews = new IdentityHashMap<>();
+    // Views of removed entities by sprite, reused for the next entity with the same sprite
+    private final Map<String, ArrayDeque<ImageView>> freeViews = new HashMap<>();
+    private final Image cannonBallDeathImage = TextureCache.get(CANNONBALL_DEATH_SPRITE, CannonBall.SIZE, CannonBall.SIZE);
+    private final ParallaxBackground background = new ParallaxBackground();
+    private Rectangle hpBar;
+    private Text hpText;
+    private int shownHP = -1; // HP currently displayed, to update the HUD only on change
+    private double cameraLeft; // Left edge of the rendered camera
+    private GameEvents.SceneBuild sceneBuild; // Open from a level load to its first frame
+
+    public GameRenderer(World world, Pane gameRoot, Pane uiRoot) {
+        this.world = world;
+        this.gameRoot = gameRoot;
+
+        // Pack the still sprites, decoded by the preloader, into the atlas
+        SpriteAnimator.addSprites(atlas);
+        atlas.add(ENEMY_SPRITE, Entities.ENEMY_SIZE, Entities.ENEMY_SIZE);
+        atlas.add(CANNON_SPRITE, Entities.ENEMY_SIZE, Entities.ENEMY_SIZE);
+        atlas.add(FINISH_LINE_SPRITE, Entities.FINISH_LINE_SIZE, Entities.FINISH_LINE_SIZE);
+        atlas.build();
+
+        // Create the player
+        playerView = createPlayerView(Player.WIDTH, Player.HEIGHT);
+        spriteAnimator = new SpriteAnimator(playerView, atlas);
+
+        // The scene layers stay in place for the whole game, levels only change what is in them
+        background.addLayer("/sprites/" + Sky_layer, Sky_Layer_scroll);
+        background.addLayer("/sprites/" + Deep_layer, Deep_Layer_scroll);
+        background.addLayer("/sprites/" + Shallow_layer, Shallow_Layer_scroll);
+        gameRoot.getChildren().addAll(background.getView(), tileMap.getView(), entityCuller.getView(), playerView, projectileCuller.getView());
+
+        // Add UI elements
+        hpBar = new Rectangle(200, 20, Color.RED);
+        hpBar.setTranslateX(20);
+        hpBar.setTranslateY(20);
+
+        hpText = new Text("HP: 100");
+        hpText.setFont(Font.font(18));
+        hpText.setFill(Color.WHITE);
+        hpText.setTranslateX(20);
+        hpText.setTranslateY(55);
+
+        uiRoot.getChildren().addAll(hpBar, hpText);
+    }
+
+    // Queue every texture the renderer asks for, at the sizes it asks for them
+    public static void addTextures(AssetPreloader preloader) {
+        preloader.addTexture("/sprites/" + Sky_layer);
+        preloader.addTexture("/sprites/" + Deep_layer);
+        preloader.addTexture("/sprites/" + Shallow_layer);
+        preloader.addTexture(BLOCK_SPRITE, TileGrid.TILE_SIZE, TileGrid.TILE_SIZE);
+        preloader.addTexture(ENEMY_SPRITE, Entities.ENEMY_SIZE, Entities.ENEMY_SIZE);
+        preloader.addTexture(CANNON_SPRITE, Entities.ENEMY_SIZE, Entities.ENEMY_SIZE);
+        preloader.addTexture(FLYING_ENEMY_SPRITE, Entities.ENEMY_SIZE, Entities.ENEMY_SIZE);
+        preloader.addTexture(CANNONBALL_SPRITE, CannonBall.SIZE, CannonBall.SIZE);
+        preloader.addTexture(CANNONBALL_DEATH_SPRITE, CannonBall.SIZE, CannonBall.SIZE);
+        preloader.addTexture(PORTAL_SPRITE, Entities.PORTAL_SIZE, Entities.PORTAL_SIZE);
+        preloader.addTexture(FINISH_LINE_SPRITE, Entities.FINISH_LINE_SIZE, Entities.FINISH_LINE_SIZE);
+    }
+
+    public SpriteAnimator getSpriteAnimator() {
+        return spriteAnimator;
+    }
+
+    // Nodes of the level currently in the scene graph: terrain chunks, culled entities and the player
+    public int getLiveNodeCount() {
+        return tileMap.getAttachedChunks() + entityCuller.getLiveCount() + projectileCuller.getLiveCount() + 1;
+    }
+
+    // Drive the player's sprite animations from the input and state of the latest tick
+    public void animatePlayer(int input) {
+        Player player = world.getPlayer();
+        int conditions = 0;
+        if (player.isMoving()) {
+            conditions |= SpriteAnimator.MOVING;
+        }
+        if (PlayerInput.isHeld(input, PlayerInput.ATTACK)) { // Regular attack with SPACE key
+            conditions |= SpriteAnimator.ATTACK;
+        }
+        if (PlayerInput.isHeld(input, PlayerInput.DOWN) && !player.canJump()) { // Downward attack with S key, only in mid-air
+            conditions |= SpriteAnimator.DOWN;
+        }
+        if (player.canJump()) {
+            conditions |= SpriteAnimator.GROUNDED;
+        }
+        spriteAnimator.update(world.getTick(), conditions, player.isFacingRight());
+    }
+
+    // Sync every node from the world, interpolating alpha of the way from the previous tick
+    public void render(double alpha) {
+        Player player = world.getPlayer();
+        double playerX = lerp(player.getPreviousX(), player.getX(), alpha);
+        playerView.setTranslateX(playerX);
+        playerView.setTranslateY(lerp(player.getPreviousY(), player.getY(), alpha));
+
+        Components.Body bodies = world.getEntities().getBodies();
+        for (int i = 0; i < bodies.size(); i++) {
+            ImageView view = entityViews[EntityRegistry.slotOf(bodies.entityAt(i))];
+            if (view == null) {
+                continue;
+            }
+            view.setTranslateX(lerp(bodies.getPreviousX(i), bodies.getX(i), alpha));
+            view.setTranslateY(lerp(bodies.getPreviousY(i), bodies.getY(i), alpha));
+            view.setScaleX(bodies.getFacing(i));
+            entityCuller.moved(view);
+        }
+
+        List<CannonBall> projectiles = world.getProjectiles();
+        for (int i = 0; i < projectiles.size(); i++) {
+            CannonBall cannonBall = projectiles.get(i);
+            ImageView view = projectileViews.get(cannonBall);
+            if (view == null) {
+                continue;
+            }
+            view.setTranslateX(lerp(cannonBall.getPreviousX(), cannonBall.getX(), alpha));
+            view.setTranslateY(cannonBall.getY());
+            projectileCuller.moved(view);
+            if (cannonBall.isExploding() && view.getImage() != cannonBallDeathImage) {
+                view.setImage(cannonBallDeathImage); // Show the explosion
+            }
+        }
+
+        updateCamera(playerX);
+
+        if (player.getHp() != shownHP) {
+            shownHP = player.getHp();
+            hpBar.setWidth(200 * (shownHP / 100.0));
+            hpText.setText("HP: " + shownHP);
+        }
+
+        if (sceneBuild != null) {
+            if (sceneBuild.shouldCommit()) {
+                sceneBuild.nodes = getLiveNodeCount();
+                sceneBuild.commit();
+            }
+            sceneBuild = null;
+        }
+    }
+
+    // Follow the player with the camera
+    private void updateCamera(double playerX) {
+        cameraLeft = world.cameraLeftFor(playerX, cameraLeft);
+        gameRoot.setLayoutX(-cameraLeft);
+        // Update background layers for parallax
+        background.update(cameraLeft);
+        tileMap.update(cameraLeft);
+        entityCuller.update(cameraLeft);
+        projectileCuller.update(cameraLeft);
+    }
+
+    private static double lerp(double from, double to, double alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    @Override
+    public void onLevelLoaded(String levelName) {
+        sceneBuild = new GameEvents.SceneBuild();
+        sceneBuild.begin();
+        sceneBuild.level = levelName;
+
+        // Keep the old level's views for reuse instead of rebuilding the scene
+        for (int slot = 0; slot < entityViews.length; slot++) {
+            if (entityViews[slot] != null) {
+                releaseView(entityViews[slot]);
+                entityViews[slot] = null;
+            }
+        }
+        releaseViews(projectileViews);
+        entityCuller.clear();
+        projectileCuller.clear();
+
+        // The terrain is drawn in chunks, attached as the camera reaches them
+        tileMap.load(world.getTileGrid());
+
+        // Enemies, portals and finish lines arrive through the spawn events as the level streams in
+
+        // Reset camera and background position
+        cameraLeft = 0;
+        updateCamera(world.getPlayer().getX());
+    }
+
+    @Override
+    public void onPlayerJumped() {
+        spriteAnimator.startJumping();
+    }
+
+    @Override
+    public void onPlayerLanded() {
+        spriteAnimator.stopJumping();
+    }
+
+    @Override
+    public void onPlayerDamaged() {
+        spriteAnimator.startInvincibilityEffect(world.getTick());
+    }
+
+    @Override
+    public void onInvincibilityEnded() {
+        spriteAnimator.stopInvincibilityEffect();
+    }
+
+    @Override
+    public void onEntitySpawned(long entity) {
+        Components.Body bodies = world.getEntities().getBodies();
+        int i = bodies.indexOf(entity);
+        ImageView view = obtainView(bodies.getX(i), bodies.getY(i), bodies.getWidth(i), bodies.getHeight(i), spriteFor(bodies.getKind(i)));
+        view.setScaleX(bodies.getFacing(i));
+        int slot = EntityRegistry.slotOf(entity);
+        if (slot >= entityViews.length) {
+            entityViews = Arrays.copyOf(entityViews, Math.max(entityViews.length * 2, slot + 1));
+        }
+        entityViews[slot] = view;
+        entityCuller.add(view);
+    }
+
+    @Override
+    public void onEntityKilled(long entity) {
+        ImageView view = entityViews[EntityRegistry.slotOf(entity)];
+        if (view != null) {
+            spriteAnimator.playDeathAnimation(view, world.getTick());
+        }
+    }
+
+    @Override
+    public void onEntityRemoved(long entity) {
+        int slot = EntityRegistry.slotOf(entity);
+        ImageView view = entityViews[slot];
+        if (view != null) {
+            entityViews[slot] = null;
+            entityCuller.remove(view);
+            releaseView(view);
+        }
+    }
+
+    @Override
+    public void onProjectileSpawned(CannonBall cannonBall) {
+        ImageView view = obtainView(cannonBall.getX(), cannonBall.getY(), CannonBall.SIZE, CannonBall.SIZE, CANNONBALL_SPRITE);
+        // Flip the cannonball image if it moves to the left
+        view.setScaleX(cannonBall.getSpeed() > 0 ? 1 : -1);
+        projectileViews.put(cannonBall, view);
+        projectileCuller.add(view);
+    }
+
+    @Override
+    public void onProjectileRemoved(CannonBall cannonBall) {
+        ImageView view = projectileViews.remove(cannonBall);
+        if (view != null) {
+            projectileCuller.remove(view);
+            releaseView(view);
+        }
+    }
+
+    private static String spriteFor(byte kind) {
+        switch (kind) {
+            case Entities.CANNON:
+                return CANNON_SPRITE;
+            case Entities.FLYER:
+                return FLYING_ENEMY_SPRITE;
+            case Entities.PORTAL:
+                return PORTAL_SPRITE;
+            case Entities.FINISH_LINE:
+                return FINISH_LINE_SPRITE;
+            default:
+                return ENEMY_SPRITE;
+        }
+    }
+
+    // The SpriteAnimator gives the view its first frame
+    private ImageView createPlayerView(double w, double h) {
+        ImageView playerView = new ImageView();
+
+        playerView.setFitWidth(w);
+        playerView.setFitHeight(h);
+        playerView.setScaleX(1);
+        playerView.setScaleY(1);
+        return playerView;
+    }
+
+    private ImageView createEntity(double x, double y, double w, double h, String imagePath) {
+        ImageView imageView = new ImageView();
+        showSprite(imageView, imagePath, w, h);
+        imageView.setFitWidth(w);
+        imageView.setFitHeight(h);
+        imageView.setTranslateX(x);
+        imageView.setTranslateY(y);
+        imageView.setUserData(imagePath); // Pool to return the view to
+        return imageView;
+    }
+
+    // Reuse a released view with the same sprite, or create one if there is none
+    private ImageView obtainView(double x, double y, double w, double h, String imagePath) {
+        ArrayDeque<ImageView> free = freeViews.get(imagePath);
+        ImageView view = free != null ? free.poll() : null;
+        if (view == null) {
+            return createEntity(x, y, w, h, imagePath);
+        }
+        // Undo whatever the previous entity did to the view
+        showSprite(view, imagePath, w, h);
+        view.setTranslateX(x);
+        view.setTranslateY(y);
+        view.setScaleX(1);
+        view.setVisible(true);
+        return view;
+    }
+
+    // Point the view at the sprite's atlas region, or at its own image if it isn't packed
+    private void showSprite(ImageView view, String imagePath, double w, double h) {
+        TextureAtlas.Region region = atlas.find(imagePath);
+        if (region != null) {
+            region.applyTo(view);
+        } else {
+            view.setImage(TextureCache.get(imagePath, w, h)); // Shared by every entity of this type
+            view.setViewport(null);
+        }
+    }
+
+    private void releaseView(ImageView view) {
+        spriteAnimator.stopDeathAnimation(view);
+        freeViews.computeIfAbsent((String) view.getUserData(), path -> new ArrayDeque<>()).push(view);
+    }
+
+    private void releaseViews(Map<?, ImageView> views) {
+        for (ImageView view : views.values()) {
+            releaseView(view);
+        }
+        views.clear();
+    }
+}
@@ -0,0 +1,185 @@
+// LevelPack.java
+
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Binary file holding every level, written by LevelPackWriter.
+//
+// Layout, big-endian:
+//   header   int magic, short version, short level count
+//   index    per level: name, next level (both short length + UTF-8), int columns,
+//            short rows, int tile offset, int entity offset, int entity count
+//   tiles    one bit per cell, column by column, (rows + 7) / 8 bytes per column
+//   entities 8 bytes each, sorted by column then row: int column, short row, byte code, byte unused
+//
+// The file is memory-mapped, so opening a level only reads its index entry and the
+// pages it touches are loaded by the OS as the level streams in.
+public class LevelPack {
+
+    public static final String RESOURCE = "/levels/levels.pack";
+    static final int MAGIC = 0x53545650; // "STVP"
+    static final short VERSION = 1;
+    static final int ENTITY_BYTES = 8;
+
+    private static LevelPack builtIn; // Loaded on first use
+
+    private final ByteBuffer data;
+    private final Map<String, Level> levels = new HashMap<>();
+
+    public LevelPack(ByteBuffer data) {
+        this.data = data;
+        if (data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a level pack");
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported level pack version: " + data.getShort(4));
+        }
+
+        ByteBuffer index = data.duplicate();
+        index.position(8);
+        int count = data.getShort(6);
+        for (int i = 0; i < count; i++) {
+            String name = readString(index);
+            String next = readString(index);
+            Level level = new Level(name, next.isEmpty() ? null : next,
+                index.getInt(), index.getShort(), index.getInt(), index.getInt(), index.getInt());
+            levels.put(name, level);
+        }
+    }
+
+    // Map a pack file into memory
+    public static LevelPack open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new LevelPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // The pack shipped with the game. Mapped straight from disk when running from the
+    // class folders, and read onto the heap when it is inside a jar and can't be mapped.
+    public static synchronized LevelPack builtIn() {
+        if (builtIn == null) {
+            URL url = LevelPack.class.getResource(RESOURCE);
+            if (url == null) {
+                throw new IllegalStateException("Resource not found: " + RESOURCE);
+            }
+            try {
+                if (url.getProtocol().equals("file")) {
+                    builtIn = open(Paths.get(url.toURI()));
+                } else {
+                    try (InputStream stream = url.openStream()) {
+                        builtIn = new LevelPack(ByteBuffer.wrap(stream.readAllBytes()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + RESOURCE, e);
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException("Bad resource location: " + url, e);
+            }
+        }
+        return builtIn;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public boolean contains(String name) {
+        return levels.containsKey(name);
+    }
+
+    public Level get(String name) {
+        Level level = levels.get(name);
+        if (level == null) {
+            throw new IllegalArgumentException("Unknown level: " + name);
+        }
+        return level;
+    }
+
+    // One level of the pack, read directly from the mapped buffer
+    public final class Level implements LevelSource {
+        private final String name;
+        private final String nextLevel;
+        private final int columns;
+        private final int rows;
+        private final int bytesPerColumn;
+        private final int tileOffset;
+        private final int entityOffset;
+        private final int entityCount;
+
+        private Level(String name, String nextLevel, int columns, int rows,
+                      int tileOffset, int entityOffset, int entityCount) {
+            this.name = name;
+            this.nextLevel = nextLevel;
+            this.columns = columns;
+            this.rows = rows;
+            this.bytesPerColumn = (rows + 7) / 8;
+            this.tileOffset = tileOffset;
+            this.entityOffset = entityOffset;
+            this.entityCount = entityCount;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Level the portals lead to, null for the last one
+        public String getNextLevel() {
+            return nextLevel;
+        }
+
+        @Override
+        public int getColumns() {
+            return columns;
+        }
+
+        @Override
+        public int getRows() {
+            return rows;
+        }
+
+        @Override
+        public boolean isSolid(int col, int row) {
+            byte bits = data.get(tileOffset + col * bytesPerColumn + (row >> 3));
+            return (bits >> (row & 7) & 1) != 0;
+        }
+
+        @Override
+        public void readEntities(int firstColumn, int lastColumn, EntityConsumer consumer) {
+            // Binary search for the first entity at or after firstColumn
+            int low = 0;
+            int high = entityCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (data.getInt(entityOffset + mid * ENTITY_BYTES) < firstColumn) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            for (int i = low; i < entityCount; i++) {
+                int offset = entityOffset + i * ENTITY_BYTES;
+                int col = data.getInt(offset);
+                if (col > lastColumn) {
+                    break;
+                }
+                consumer.accept(col, data.getShort(offset + 4), (char) data.get(offset + 6));
+            }
+        }
+    }
+}
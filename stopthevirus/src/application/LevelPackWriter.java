@@ -0,0 +1,129 @@
+// LevelPackWriter.java
+
+package application;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Builds the level pack from the levels in LevelData, see LevelPack for the format.
+// Run it from the stopthevirus folder after editing a level:
+//   java -cp <classes> application.LevelPackWriter [output file]
+public class LevelPackWriter {
+
+    private static final String DEFAULT_OUTPUT = "src" + LevelPack.RESOURCE;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String> nextLevels = new ArrayList<>();
+    private final List<String[]> rows = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+        LevelPackWriter writer = new LevelPackWriter();
+        writer.add("Level1", LevelData.Level1, "Level2");
+        writer.add("Level2", LevelData.Level2, "Level3");
+        writer.add("Level3", LevelData.Level3, "Level4");
+        writer.add("Level4", LevelData.Level4, "Level5");
+        writer.add("Level5", LevelData.Level5, null); // Final level
+
+        Path output = Paths.get(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+        writer.write(output);
+        System.out.println("Wrote " + writer.names.size() + " levels to " + output + " (" + Files.size(output) + " bytes)");
+    }
+
+    // Queue a level written as rows of cell codes, nextLevel is where its portals lead
+    public void add(String name, String[] levelRows, String nextLevel) {
+        names.add(name);
+        nextLevels.add(nextLevel);
+        rows.add(levelRows);
+    }
+
+    public void write(Path output) throws IOException {
+        // Size the index first so the data offsets are known when it is written
+        int indexSize = 8;
+        for (int i = 0; i < names.size(); i++) {
+            indexSize += 2 + utf8(names.get(i)).length + 2 + utf8(nextLevelOf(i)).length + 4 + 2 + 4 + 4 + 4;
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(indexBytes);
+        index.writeInt(LevelPack.MAGIC);
+        index.writeShort(LevelPack.VERSION);
+        index.writeShort(names.size());
+
+        for (int i = 0; i < names.size(); i++) {
+            StringLevelSource level = new StringLevelSource(rows.get(i));
+            int tileOffset = indexSize + body.size();
+            writeTiles(level, body);
+            int entityOffset = indexSize + body.size();
+            int entityCount = writeEntities(level, body);
+
+            writeString(index, names.get(i));
+            writeString(index, nextLevelOf(i));
+            index.writeInt(level.getColumns());
+            index.writeShort(level.getRows());
+            index.writeInt(tileOffset);
+            index.writeInt(entityOffset);
+            index.writeInt(entityCount);
+        }
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(output)) {
+            indexBytes.writeTo(out);
+            body.writeTo(out);
+        }
+    }
+
+    private String nextLevelOf(int i) {
+        return nextLevels.get(i) != null ? nextLevels.get(i) : "";
+    }
+
+    // One bit per cell, column by column
+    private static void writeTiles(StringLevelSource level, ByteArrayOutputStream out) {
+        int bytesPerColumn = (level.getRows() + 7) / 8;
+        for (int col = 0; col < level.getColumns(); col++) {
+            byte[] column = new byte[bytesPerColumn];
+            for (int row = 0; row < level.getRows(); row++) {
+                if (level.isSolid(col, row)) {
+                    column[row >> 3] |= (byte) (1 << (row & 7));
+                }
+            }
+            out.write(column, 0, column.length);
+        }
+    }
+
+    // Entities in column order, as readEntities reports them
+    private static int writeEntities(StringLevelSource level, ByteArrayOutputStream out) throws IOException {
+        List<int[]> entities = new ArrayList<>();
+        level.readEntities(0, level.getColumns() - 1, (col, row, code) -> entities.add(new int[] {col, row, code}));
+
+        DataOutputStream data = new DataOutputStream(out);
+        for (int[] entity : entities) {
+            data.writeInt(entity[0]);
+            data.writeShort(entity[1]);
+            data.writeByte(entity[2]);
+            data.writeByte(0);
+        }
+        data.flush();
+        return entities.size();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = utf8(value);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,23 @@
+// LevelSource.java
+
+package application;
+
+// Where the cells of a level come from. The World reads it a column window at a time,
+// so a level never has to be expanded in memory as a whole.
+public interface LevelSource {
+
+    // Receives the entity cells of a column range, see LevelData for the codes
+    interface EntityConsumer {
+        void accept(int col, int row, char code);
+    }
+
+    int getColumns();
+
+    int getRows();
+
+    boolean isSolid(int col, int row);
+
+    // Report every enemy, portal and finish line cell in the inclusive column range,
+    // column by column and top to bottom within a column
+    void readEntities(int firstColumn, int lastColumn, EntityConsumer consumer);
+}
@@ -0,0 +1,67 @@
+// ParallaxBackground.java
+
+package application;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Background layers that scroll at their own speed and repeat forever.
+// Each layer image is decoded once at its native size and scaled on screen, then drawn as
+// just enough side-by-side copies to cover the view, so the texture memory doesn't grow
+// with the level and the background never runs out on long levels.
+public class ParallaxBackground {
+
+    private static final double TILE_WIDTH = 4020; // On-screen size of one copy of a layer
+    private static final double TILE_HEIGHT = 1080;
+
+    private final Pane view = new Pane();
+    private final List<Layer> layers = new ArrayList<>();
+
+    private static final class Layer {
+        final Pane tiles = new Pane(); // Copies of the image, side by side
+        final double scroll; // Extra scroll relative to the world, see update
+
+        Layer(Image image, double scroll) {
+            this.scroll = scroll;
+            int copies = (int) Math.ceil(World.VIEW_WIDTH / TILE_WIDTH) + 1;
+            for (int i = 0; i < copies; i++) {
+                ImageView tile = new ImageView(image);
+                tile.setFitWidth(TILE_WIDTH);
+                tile.setFitHeight(TILE_HEIGHT);
+                tile.setTranslateX(i * TILE_WIDTH);
+                tiles.getChildren().add(tile);
+            }
+        }
+    }
+
+    public ParallaxBackground() {
+        view.setMouseTransparent(true);
+    }
+
+    // Pane to place behind the level, inside the node the camera moves
+    public Pane getView() {
+        return view;
+    }
+
+    // Add a layer in front of the previous ones
+    public void addLayer(String resourcePath, double scroll) {
+        Layer layer = new Layer(TextureCache.get(resourcePath), scroll);
+        layers.add(layer);
+        view.getChildren().add(layer.tiles);
+    }
+
+    // Place the layers for the camera position. A layer is drawn at -cameraLeft * scroll
+    // inside the moving game root, so it moves by (1 + scroll) times the camera on screen.
+    public void update(double cameraLeft) {
+        for (Layer layer : layers) {
+            double origin = -cameraLeft * layer.scroll;
+            // First copy that reaches into the view
+            double first = Math.floor((cameraLeft - origin) / TILE_WIDTH);
+            layer.tiles.setTranslateX(origin + first * TILE_WIDTH);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+// Player.java
+
+package application;
+
+public class Player {
+
+    public static final double WIDTH = 40 * 1.3; // Sprite is scaled up by 30%
+    public static final double HEIGHT = 40 * 1.3;
+    public static final int MAX_HP = 100;
+
+    private double x;
+    private double y;
+    private double previousX; // Position at the start of the current tick
+    private double previousY;
+    private double velocityY;
+    private boolean canJump = true;
+    private boolean facingRight = true;
+    private boolean moving;
+    private int hp = MAX_HP;
+    private boolean invincible; // Can't be hurt, World schedules when this ends
+
+    // Place the player at a spawn point, standing still
+    public void spawn(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.previousX = x;
+        this.previousY = y;
+        this.velocityY = 0;
+        this.canJump = true;
+    }
+
+    // Remember where the player was before this tick moves it
+    public void savePosition() {
+        previousX = x;
+        previousY = y;
+    }
+
+    public boolean intersects(double minX, double minY, double width, double height) {
+        return minX <= x + WIDTH && minX + width >= x && minY <= y + HEIGHT && minY + height >= y;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public void setX(double x) {
+        this.x = x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public void setY(double y) {
+        this.y = y;
+    }
+
+    public double getPreviousX() {
+        return previousX;
+    }
+
+    public double getPreviousY() {
+        return previousY;
+    }
+
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    public void setVelocityY(double velocityY) {
+        this.velocityY = velocityY;
+    }
+
+    public boolean canJump() {
+        return canJump;
+    }
+
+    public void setCanJump(boolean canJump) {
+        this.canJump = canJump;
+    }
+
+    public boolean isFacingRight() {
+        return facingRight;
+    }
+
+    public void setFacingRight(boolean facingRight) {
+        this.facingRight = facingRight;
+    }
+
+    public boolean isMoving() {
+        return moving;
+    }
+
+    public void setMoving(boolean moving) {
+        this.moving = moving;
+    }
+
+    public int getHp() {
+        return hp;
+    }
+
+    public void setHp(int hp) {
+        this.hp = Math.max(hp, 0);
+    }
+
+    public boolean isInvincible() {
+        return invincible;
+    }
+
+    public void setInvincible(boolean invincible) {
+        this.invincible = invincible;
+    }
+}
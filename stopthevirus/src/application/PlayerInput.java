@@ -0,0 +1,21 @@
+// PlayerInput.java
+
+package application;
+
+// Bit flags for the buttons held during a simulation tick
+public final class PlayerInput {
+
+    public static final int NONE = 0;
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int JUMP = 1 << 2;
+    public static final int ATTACK = 1 << 3;
+    public static final int DOWN = 1 << 4;
+
+    private PlayerInput() {
+    }
+
+    public static boolean isHeld(int input, int button) {
+        return (input & button) != 0;
+    }
+}
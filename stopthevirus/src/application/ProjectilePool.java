@@ -0,0 +1,54 @@
+// ProjectilePool.java
+
+package application;
+
+// Fixed set of cannonballs handed out and taken back, so firing allocates nothing.
+// Every instance is created up front; when all are in flight new shots are dropped.
+public class ProjectilePool {
+
+    private final CannonBall[] all; // By id
+    private final CannonBall[] free;
+    private int freeCount;
+
+    public ProjectilePool(int capacity, TickScheduler scheduler) {
+        all = new CannonBall[capacity];
+        free = new CannonBall[capacity];
+        for (int i = 0; i < capacity; i++) {
+            all[i] = new CannonBall(scheduler, i);
+            free[i] = all[i];
+        }
+        freeCount = capacity;
+    }
+
+    // Take a cannonball ready to fly from the given position, or null if none are left
+    public CannonBall obtain(double x, double y, double speed, int health) {
+        if (freeCount == 0) {
+            return null;
+        }
+        CannonBall cannonBall = free[--freeCount];
+        free[freeCount] = null;
+        cannonBall.reset(x, y, speed, health);
+        return cannonBall;
+    }
+
+    // Give back a cannonball that has left the world
+    public void release(CannonBall cannonBall) {
+        cannonBall.retire();
+        if (freeCount < free.length) {
+            free[freeCount++] = cannonBall;
+        }
+    }
+
+    // The cannonball with the given id, in flight or not
+    public CannonBall get(int id) {
+        return all[id];
+    }
+
+    public int getCapacity() {
+        return free.length;
+    }
+
+    public int getFreeCount() {
+        return freeCount;
+    }
+}
@@ -0,0 +1,121 @@
+// Replay.java
+
+package application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// The input of every simulation tick of a play session, from the level it started on.
+// The World is deterministic, so ticking a fresh World with these inputs plays the
+// session again exactly, see ReplayRunner.
+//
+// File layout, big-endian:
+//   int magic, short version, level name (short length + UTF-8), int tick count,
+//   then runs of identical input: byte input, varint number of ticks
+public class Replay {
+
+    static final int MAGIC = 0x53545652; // "STVR"
+    static final short VERSION = 1;
+
+    private final String levelName;
+    private byte[] inputs = new byte[1024]; // One PlayerInput bit set per tick
+    private int tickCount;
+
+    public Replay(String levelName) {
+        this.levelName = levelName;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public int getInput(int tick) {
+        return inputs[tick];
+    }
+
+    // Add the input of the next tick
+    public void record(int input) {
+        if (tickCount == inputs.length) {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+        }
+        inputs[tickCount++] = (byte) input;
+    }
+
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeUTF(levelName);
+            out.writeInt(tickCount);
+
+            int tick = 0;
+            while (tick < tickCount) {
+                byte input = inputs[tick];
+                int run = 1;
+                while (tick + run < tickCount && inputs[tick + run] == input) {
+                    run++;
+                }
+                out.writeByte(input);
+                writeVarInt(out, run);
+                tick += run;
+            }
+        }
+    }
+
+    public static Replay read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a replay file: " + path);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version: " + version);
+            }
+
+            Replay replay = new Replay(in.readUTF());
+            int tickCount = in.readInt();
+            replay.inputs = new byte[Math.max(1, tickCount)];
+            while (replay.tickCount < tickCount) {
+                byte input = in.readByte();
+                int run = readVarInt(in);
+                if (run <= 0 || run > tickCount - replay.tickCount) {
+                    throw new IOException("Corrupt replay file: " + path);
+                }
+                Arrays.fill(replay.inputs, replay.tickCount, replay.tickCount + run, input);
+                replay.tickCount += run;
+            }
+            return replay;
+        }
+    }
+
+    // 7 bits per byte, high bit set while more bytes follow
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed run length");
+    }
+}
@@ -0,0 +1,75 @@
+// ReplayRunner.java
+
+package application;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Plays a recorded session without a window and reports how the simulation behaved.
+//   java -cp <classes> application.ReplayRunner <replay file> [hash file] [runs]
+// The hash file gets one line per tick, "tick hash", so two builds can be compared with a
+// plain diff: identical files mean identical behaviour. Every run after the first replays
+// the session again on a warmed-up JVM, and the tick times of the last run are reported.
+public class ReplayRunner {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: ReplayRunner <replay file> [hash file] [runs]");
+            return;
+        }
+        Replay replay = Replay.read(Paths.get(args[0]));
+        int runs = args.length > 2 ? Math.max(1, Integer.parseInt(args[2])) : 1;
+
+        long[] hashes = new long[replay.getTickCount()];
+        long[] tickNanos = new long[replay.getTickCount()];
+        for (int run = 0; run < runs; run++) {
+            play(replay, hashes, tickNanos);
+        }
+
+        if (args.length > 1) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[1])))) {
+                for (int tick = 0; tick < hashes.length; tick++) {
+                    out.printf("%d %016x%n", tick + 1, hashes[tick]);
+                }
+            }
+        }
+
+        System.out.printf("Replayed %d ticks of %s, final hash %016x%n",
+            replay.getTickCount(), replay.getLevelName(), hashes.length > 0 ? hashes[hashes.length - 1] : 0);
+        System.out.println(timingReport(tickNanos));
+    }
+
+    // Tick a fresh World through the replay, recording the state hash and time of every tick
+    private static void play(Replay replay, long[] hashes, long[] tickNanos) {
+        World world = new World();
+        world.loadLevel(replay.getLevelName());
+        for (int tick = 0; tick < replay.getTickCount(); tick++) {
+            long start = System.nanoTime();
+            world.tick(replay.getInput(tick));
+            tickNanos[tick] = System.nanoTime() - start;
+            hashes[tick] = world.stateHash();
+        }
+    }
+
+    private static String timingReport(long[] tickNanos) {
+        if (tickNanos.length == 0) {
+            return "No ticks";
+        }
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long nanos : sorted) {
+            total += nanos;
+        }
+        return String.format("Tick time: mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us",
+            total / 1000.0 / sorted.length, percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = Math.min(sorted.length - 1, (int) (fraction * sorted.length));
+        return sorted[index] / 1000.0;
+    }
+}
@@ -0,0 +1,228 @@
+// SoundMixer.java
+
+package application;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Plays sound effects with low latency by mixing them in software.
+// Each sound is decoded to PCM once, then a dedicated audio thread mixes the playing voices
+// into one output line in small periods, so a sound starts on the next period instead of
+// waiting for a player to start, and overlapping sounds don't cut each other off.
+public class SoundMixer {
+
+    public static final int DEFAULT_VOICES = 8;
+    public static final float SAMPLE_RATE = 44100;
+    private static final int CHANNELS = 2;
+    private static final int FRAME_BYTES = CHANNELS * 2; // 16-bit samples
+    private static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+    private static final int PERIOD_FRAMES = 256; // About 6 ms mixed at a time
+    private static final int LINE_PERIODS = 4; // Periods queued in the line ahead of the speakers
+
+    private final SourceDataLine line;
+    private final Voice[] voices;
+    private final ConcurrentLinkedQueue<Voice> pending = new ConcurrentLinkedQueue<>(); // Triggered, not started yet
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile long lastLatencyNanos;
+    private volatile long maxLatencyNanos;
+
+    // A decoded sound, interleaved stereo samples in the mixer's format
+    public static final class Sound {
+        private final short[] samples;
+
+        private Sound(short[] samples) {
+            this.samples = samples;
+        }
+
+        public int getFrames() {
+            return samples.length / CHANNELS;
+        }
+    }
+
+    private static final class Voice {
+        Sound sound;
+        int position; // Next sample to mix
+        int gain; // Volume in 1/256 steps
+        long triggerNanos;
+    }
+
+    public SoundMixer(int voiceCount) throws LineUnavailableException {
+        voices = new Voice[Math.max(1, voiceCount)];
+        for (int i = 0; i < voices.length; i++) {
+            voices[i] = new Voice();
+        }
+
+        line = AudioSystem.getSourceDataLine(FORMAT);
+        line.open(FORMAT, PERIOD_FRAMES * LINE_PERIODS * FRAME_BYTES);
+        line.start();
+
+        thread = new Thread(this::run, "sound-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY); // A late period is heard as a click
+        thread.start();
+    }
+
+    // Decode a sound resource to PCM. Any format javax.sound can read works, compressed
+    // formats like MP3 need their decoder on the classpath.
+    public static Sound decode(String resourcePath) throws IOException, UnsupportedAudioFileException {
+        InputStream stream = SoundMixer.class.getResourceAsStream(resourcePath);
+        if (stream == null) {
+            throw new IOException("Resource not found: " + resourcePath);
+        }
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(stream))) {
+            AudioFormat sourceFormat = source.getFormat();
+            float rate = sourceFormat.getSampleRate();
+            int channels = sourceFormat.getChannels();
+            AudioFormat pcmFormat = new AudioFormat(rate, 16, channels, true, false);
+            try (AudioInputStream pcm = AudioSystem.getAudioInputStream(pcmFormat, source)) {
+                byte[] bytes = pcm.readAllBytes();
+                short[] decoded = new short[bytes.length / 2];
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(decoded);
+                return new Sound(toMixerFormat(decoded, rate, channels));
+            }
+        }
+    }
+
+    // Resample to the mixer's rate and spread to stereo, with linear interpolation
+    private static short[] toMixerFormat(short[] samples, float rate, int channels) {
+        int sourceFrames = samples.length / channels;
+        if (rate == SAMPLE_RATE && channels == CHANNELS) {
+            return samples;
+        }
+
+        double step = rate / SAMPLE_RATE;
+        int frames = (int) (sourceFrames / step);
+        short[] out = new short[frames * CHANNELS];
+        for (int frame = 0; frame < frames; frame++) {
+            double position = frame * step;
+            int index = (int) position;
+            double fraction = position - index;
+            int nextIndex = Math.min(index + 1, sourceFrames - 1);
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                int sourceChannel = Math.min(channel, channels - 1); // Mono plays on both sides
+                int a = samples[index * channels + sourceChannel];
+                int b = samples[nextIndex * channels + sourceChannel];
+                out[frame * CHANNELS + channel] = (short) Math.round(a + (b - a) * fraction);
+            }
+        }
+        return out;
+    }
+
+    // Start a sound on the next period, from any thread. If every voice is busy the one
+    // closest to its end is replaced.
+    public void play(Sound sound, double volume) {
+        Voice voice = new Voice();
+        voice.sound = sound;
+        voice.gain = (int) Math.round(Math.max(0, volume) * 256);
+        voice.triggerNanos = System.nanoTime();
+        pending.add(voice);
+    }
+
+    public void close() {
+        running = false;
+        try {
+            thread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        line.close();
+    }
+
+    // Time from play to the sound reaching the speakers, for the last sound started
+    public long getLastLatencyMicros() {
+        return lastLatencyNanos / 1000;
+    }
+
+    public long getMaxLatencyMicros() {
+        return maxLatencyNanos / 1000;
+    }
+
+    public int getVoiceCount() {
+        return voices.length;
+    }
+
+    public String report() {
+        return String.format("Sound: %d voices, latency %.1f ms last, %.1f ms max",
+            voices.length, lastLatencyNanos / 1e6, maxLatencyNanos / 1e6);
+    }
+
+    private void run() {
+        int[] mix = new int[PERIOD_FRAMES * CHANNELS];
+        byte[] out = new byte[PERIOD_FRAMES * FRAME_BYTES];
+
+        while (running) {
+            startPending();
+
+            Arrays.fill(mix, 0);
+            for (Voice voice : voices) {
+                if (voice.sound != null) {
+                    mixVoice(voice, mix);
+                }
+            }
+
+            for (int i = 0; i < mix.length; i++) {
+                int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                out[i * 2] = (byte) sample;
+                out[i * 2 + 1] = (byte) (sample >> 8);
+            }
+            line.write(out, 0, out.length); // Blocks until the line has room, pacing the loop
+        }
+    }
+
+    private void startPending() {
+        Voice request;
+        while ((request = pending.poll()) != null) {
+            Voice voice = freeVoice();
+            voice.sound = request.sound;
+            voice.position = 0;
+            voice.gain = request.gain;
+
+            // Heard once the audio already queued in the line has played
+            long queuedFrames = (line.getBufferSize() - line.available()) / FRAME_BYTES;
+            long latency = System.nanoTime() - request.triggerNanos + (long) (queuedFrames * 1e9 / SAMPLE_RATE);
+            lastLatencyNanos = latency;
+            maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        }
+    }
+
+    // An idle voice, or the one with the least left to play
+    private Voice freeVoice() {
+        Voice best = voices[0];
+        int bestRemaining = Integer.MAX_VALUE;
+        for (Voice voice : voices) {
+            if (voice.sound == null) {
+                return voice;
+            }
+            int remaining = voice.sound.samples.length - voice.position;
+            if (remaining < bestRemaining) {
+                best = voice;
+                bestRemaining = remaining;
+            }
+        }
+        return best;
+    }
+
+    private static void mixVoice(Voice voice, int[] mix) {
+        short[] samples = voice.sound.samples;
+        int count = Math.min(mix.length, samples.length - voice.position);
+        for (int i = 0; i < count; i++) {
+            mix[i] += samples[voice.position + i] * voice.gain >> 8;
+        }
+        voice.position += count;
+        if (voice.position >= samples.length) {
+            voice.sound = null;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+// SpatialHash.java
+
+package application;
+
+import java.util.Arrays;
+
+// Uniform grid of cells for things that move, each identified by a small int id.
+// An item is linked into every cell its box touches. Moving it only relinks it when the
+// box crosses into a different set of cells, which for walkers and cannonballs is once
+// every few dozen ticks. A query returns each item in the cells under the area once, in
+// no particular order, so callers still do their exact overlap test on the candidates.
+public class SpatialHash {
+
+    public static final double DEFAULT_CELL_SIZE = 128;
+    private static final int NONE = -1;
+
+    private final double cellSize;
+
+    // Open-addressing table from cell key to the first node of the cell's item list
+    private long[] cellKeys = new long[256];
+    private int[] cellHeads = new int[256];
+    private boolean[] cellUsed = new boolean[256];
+    private int cellCount;
+
+    // One node per item per cell, recycled through a free list
+    private int[] nodeItem = new int[256];
+    private int[] nodeNext = new int[256];
+    private int nodeCount;
+    private int freeNode = NONE;
+
+    // Cell range of each item, only meaningful while present
+    private int[] itemMinX = new int[64];
+    private int[] itemMinY = new int[64];
+    private int[] itemMaxX = new int[64];
+    private int[] itemMaxY = new int[64];
+    private boolean[] present = new boolean[64];
+    private int itemCount;
+
+    private int[] queryMarks = new int[64]; // Stamp of the last query that returned the item
+    private int queryStamp;
+    private int[] results = new int[64];
+
+    public SpatialHash() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialHash(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    public boolean contains(int item) {
+        return item < present.length && present[item];
+    }
+
+    // Add an item with its box, or move it if it is already in
+    public void insert(int item, double x, double y, double width, double height) {
+        if (contains(item)) {
+            update(item, x, y, width, height);
+            return;
+        }
+        ensureItem(item);
+        itemMinX[item] = cellOf(x);
+        itemMinY[item] = cellOf(y);
+        itemMaxX[item] = cellOf(x + width);
+        itemMaxY[item] = cellOf(y + height);
+        present[item] = true;
+        itemCount++;
+        link(item);
+    }
+
+    // Give an item its new box, relinking it only if it now touches different cells
+    public void update(int item, double x, double y, double width, double height) {
+        int minX = cellOf(x);
+        int minY = cellOf(y);
+        int maxX = cellOf(x + width);
+        int maxY = cellOf(y + height);
+        if (minX == itemMinX[item] && minY == itemMinY[item] && maxX == itemMaxX[item] && maxY == itemMaxY[item]) {
+            return;
+        }
+        unlink(item);
+        itemMinX[item] = minX;
+        itemMinY[item] = minY;
+        itemMaxX[item] = maxX;
+        itemMaxY[item] = maxY;
+        link(item);
+    }
+
+    public void remove(int item) {
+        if (!contains(item)) {
+            return;
+        }
+        unlink(item);
+        present[item] = false;
+        itemCount--;
+    }
+
+    public void clear() {
+        Arrays.fill(cellUsed, false);
+        Arrays.fill(present, false);
+        cellCount = 0;
+        nodeCount = 0;
+        freeNode = NONE;
+        itemCount = 0;
+    }
+
+    // Collect the items in the cells the area touches, read them with getResult.
+    // The results are only valid until the next query.
+    public int query(double x, double y, double width, double height) {
+        if (++queryStamp == 0) {
+            Arrays.fill(queryMarks, 0); // The stamp wrapped, forget the old marks
+            queryStamp = 1;
+        }
+        int count = 0;
+        int maxX = cellOf(x + width);
+        int maxY = cellOf(y + height);
+        for (int cellX = cellOf(x); cellX <= maxX; cellX++) {
+            for (int cellY = cellOf(y); cellY <= maxY; cellY++) {
+                int cell = findCell(key(cellX, cellY));
+                if (cell == NONE) {
+                    continue;
+                }
+                for (int node = cellHeads[cell]; node != NONE; node = nodeNext[node]) {
+                    int item = nodeItem[node];
+                    if (queryMarks[item] != queryStamp) {
+                        queryMarks[item] = queryStamp;
+                        if (count == results.length) {
+                            results = Arrays.copyOf(results, count * 2);
+                        }
+                        results[count++] = item;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private void link(int item) {
+        for (int cellX = itemMinX[item]; cellX <= itemMaxX[item]; cellX++) {
+            for (int cellY = itemMinY[item]; cellY <= itemMaxY[item]; cellY++) {
+                int cell = addCell(key(cellX, cellY));
+                int node = newNode();
+                nodeItem[node] = item;
+                nodeNext[node] = cellHeads[cell];
+                cellHeads[cell] = node;
+            }
+        }
+    }
+
+    private void unlink(int item) {
+        for (int cellX = itemMinX[item]; cellX <= itemMaxX[item]; cellX++) {
+            for (int cellY = itemMinY[item]; cellY <= itemMaxY[item]; cellY++) {
+                int cell = findCell(key(cellX, cellY));
+                int previous = NONE;
+                for (int node = cellHeads[cell]; node != NONE; previous = node, node = nodeNext[node]) {
+                    if (nodeItem[node] == item) {
+                        if (previous == NONE) {
+                            cellHeads[cell] = nodeNext[node];
+                        } else {
+                            nodeNext[previous] = nodeNext[node];
+                        }
+                        nodeNext[node] = freeNode;
+                        freeNode = node;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private int newNode() {
+        if (freeNode != NONE) {
+            int node = freeNode;
+            freeNode = nodeNext[node];
+            return node;
+        }
+        if (nodeCount == nodeItem.length) {
+            nodeItem = Arrays.copyOf(nodeItem, nodeCount * 2);
+            nodeNext = Arrays.copyOf(nodeNext, nodeCount * 2);
+        }
+        return nodeCount++;
+    }
+
+    private void ensureItem(int item) {
+        if (item < present.length) {
+            return;
+        }
+        int capacity = Math.max(present.length * 2, item + 1);
+        itemMinX = Arrays.copyOf(itemMinX, capacity);
+        itemMinY = Arrays.copyOf(itemMinY, capacity);
+        itemMaxX = Arrays.copyOf(itemMaxX, capacity);
+        itemMaxY = Arrays.copyOf(itemMaxY, capacity);
+        present = Arrays.copyOf(present, capacity);
+        queryMarks = Arrays.copyOf(queryMarks, capacity);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return (long) cellX << 32 | (cellY & 0xFFFFFFFFL);
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (cellKeys.length - 1);
+    }
+
+    // Table slot of the cell, NONE if no item has ever been in it
+    private int findCell(long key) {
+        for (int slot = slotOf(key); cellUsed[slot]; slot = (slot + 1) & (cellKeys.length - 1)) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    // Table slot of the cell, adding it with an empty list if it is new.
+    // Cells stay in the table once added, until clear, as items keep coming back to them.
+    private int addCell(long key) {
+        int slot = slotOf(key);
+        for (; cellUsed[slot]; slot = (slot + 1) & (cellKeys.length - 1)) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+        }
+        if ((cellCount + 1) * 2 > cellKeys.length) {
+            growCells();
+            return addCell(key);
+        }
+        cellUsed[slot] = true;
+        cellKeys[slot] = key;
+        cellHeads[slot] = NONE;
+        cellCount++;
+        return slot;
+    }
+
+    private void growCells() {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        boolean[] oldUsed = cellUsed;
+        cellKeys = new long[oldKeys.length * 2];
+        cellHeads = new int[oldKeys.length * 2];
+        cellUsed = new boolean[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotOf(oldKeys[i]);
+                while (cellUsed[slot]) {
+                    slot = (slot + 1) & (cellKeys.length - 1);
+                }
+                cellUsed[slot] = true;
+                cellKeys[slot] = oldKeys[i];
+                cellHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+}
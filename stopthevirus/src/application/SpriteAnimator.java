@@ -1,216 +1,200 @@
 package application;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.util.Duration;
 
+import java.util.Arrays;
+
+// Picks the player's sprite, and steps enemy death explosions, from the simulation tick.
+// The player's state comes from a transition table indexed by the current state and the
+// conditions of the tick, and each state plays a clip built once up front. Frames are
+// worked out from the ticks since the state or explosion began, so animations stop while
+// the game is paused and starting one allocates nothing.
+// Every frame is a region of the TextureAtlas, so a frame change only moves the viewport.
 public class SpriteAnimator {
 
+    // States of the player's animation
+    public enum State {
+        IDLE, WALK, JUMP, ATTACK, DOWN_ATTACK
+    }
+
+    // Conditions of a tick, combined into the column of the transition table
+    public static final int MOVING = 1;
+    public static final int ATTACK = 1 << 1; // Attack held
+    public static final int DOWN = 1 << 2; // Down held in mid-air
+    public static final int GROUNDED = 1 << 3; // Standing on something, able to jump
+    private static final int JUMPING = 1 << 4; // Jumped and not landed yet, tracked here
+    private static final int CONDITIONS = 1 << 5;
+
+    private static final State[] STATES = State.values();
+    private static final State[][] TRANSITIONS = buildTransitions();
+
+    private static final int WALK_FRAME_TICKS = ticks(0.15);
+    private static final int ATTACK_FRAME_TICKS = ticks(0.5 / 3); // Whole attack lasts 0.5 seconds
+    private static final int FLASH_TICKS = ticks(0.1);
+    private static final int DEATH_FRAME_TICKS = ticks(0.8 / 12);
+
+    private static final String WALK1_SPRITE = "/sprites/walk1.png";
+    private static final String WALK2_SPRITE = "/sprites/walk2.png";
+    private static final String JUMP_SPRITE = "/sprites/jump.png";
+    private static final String IDLE_SPRITE = "/sprites/player-idle.png";
+    private static final String DOWN_ATTACK_SPRITE = "/sprites/StopVirus_Down-Air-Attack.png";
+    private static final String[] ATTACK_SPRITES = {
+        "/sprites/attack1.png", "/sprites/attack2.png", "/sprites/attack3.png"
+    };
+    private static final String[] PLAYER_SPRITES = {
+        WALK1_SPRITE, WALK2_SPRITE, JUMP_SPRITE, IDLE_SPRITE, DOWN_ATTACK_SPRITE,
+        ATTACK_SPRITES[0], ATTACK_SPRITES[1], ATTACK_SPRITES[2]
+    };
+    private static final int EXPLOSION_FRAMES = 12;
+
     private final ImageView playerImageView;
-    private final Image walk1;
-    private final Image walk2;
-    private final Image jumpImage;
-    private final Image idleImage;
-    private final Image[] attackImages;
-    private final Image downAttackImage;
-
-    private final Timeline walkAnimation;
-    private final Timeline attackAnimation;
-    private final Timeline invincibilityFlash;
-
-    private boolean isWalking = false;
-    private boolean isAttacking = false;
-    private boolean isJumping = false;
-    private boolean isFlashing = false;
+    private final AnimationClip[] clips; // By State ordinal
+    private final AnimationClip explosion;
+
+    private State state = State.IDLE;
+    private long stateStart; // Tick the current state began
+    private TextureAtlas.Region shownFrame; // Frame the player view currently shows
+    private boolean jumping = false;
     private boolean facingRight = true;
+    private long flashStart = -1; // Tick the invincibility flash began, -1 when not flashing
 
-    private int currentAttackFrame = 0;
+    // Explosions playing on enemy views, with the tick each began
+    private ImageView[] dyingViews = new ImageView[16];
+    private long[] dyingStarts = new long[16];
+    private int dyingCount;
 
-    public SpriteAnimator(ImageView playerImageView) {
+    // The atlas must already hold the sprites queued by addSprites
+    public SpriteAnimator(ImageView playerImageView, TextureAtlas atlas) {
         this.playerImageView = playerImageView;
 
-        // Load sprites
-        this.walk1 = new Image(getClass().getResourceAsStream("/sprites/walk1.png"));
-        this.walk2 = new Image(getClass().getResourceAsStream("/sprites/walk2.png"));
-        this.jumpImage = new Image(getClass().getResourceAsStream("/sprites/jump.png"));
-        this.idleImage = new Image(getClass().getResourceAsStream("/sprites/player-idle.png"));
-        this.downAttackImage = new Image(getClass().getResourceAsStream("/sprites/StopVirus_Down-Air-Attack.png"));
-
-        this.attackImages = new Image[]{
-            new Image(getClass().getResourceAsStream("/sprites/attack1.png")),
-            new Image(getClass().getResourceAsStream("/sprites/attack2.png")),
-            new Image(getClass().getResourceAsStream("/sprites/attack3.png"))
-        };
-
-        // Setup animations
-        this.walkAnimation = new Timeline(
-            new KeyFrame(Duration.seconds(0.15), event -> toggleWalkImage())
-        );
-        walkAnimation.setCycleCount(Timeline.INDEFINITE);
-
-        this.attackAnimation = new Timeline(
-            new KeyFrame(Duration.seconds(0.17), event -> toggleAttackImage())
-        );
-        attackAnimation.setCycleCount(attackImages.length);
-        attackAnimation.setOnFinished(event -> finishAttack());
-
-        this.invincibilityFlash = new Timeline(
-            new KeyFrame(Duration.seconds(0.1), event -> toggleTransparency())
-        );
-        invincibilityFlash.setCycleCount(Timeline.INDEFINITE);
-    }
-
-    private void toggleWalkImage() {
-        if (playerImageView.getImage() == walk1) {
-            playerImageView.setImage(walk2);
-        } else {
-            playerImageView.setImage(walk1);
+        TextureAtlas.Region[] attackFrames = new TextureAtlas.Region[ATTACK_SPRITES.length];
+        for (int i = 0; i < attackFrames.length; i++) {
+            attackFrames[i] = atlas.get(ATTACK_SPRITES[i]);
         }
-    }
-
-    private void toggleAttackImage() {
-        if (currentAttackFrame < attackImages.length) {
-            playerImageView.setImage(attackImages[currentAttackFrame]);
-            currentAttackFrame++;
+        TextureAtlas.Region[] explosionFrames = new TextureAtlas.Region[EXPLOSION_FRAMES];
+        for (int i = 0; i < explosionFrames.length; i++) {
+            explosionFrames[i] = atlas.get(explosionSprite(i));
         }
-    }
 
-    public void startWalking(boolean movingRight) {
-        if (!isWalking && !isAttacking && !isJumping) {
-            playerImageView.setImage(walk1);
-            walkAnimation.play();
-            isWalking = true;
-        }
-        setDirection(movingRight);
-    }
+        clips = new AnimationClip[STATES.length];
+        clips[State.IDLE.ordinal()] = new AnimationClip(1, false, atlas.get(IDLE_SPRITE));
+        clips[State.WALK.ordinal()] = new AnimationClip(WALK_FRAME_TICKS, true, atlas.get(WALK1_SPRITE), atlas.get(WALK2_SPRITE));
+        clips[State.JUMP.ordinal()] = new AnimationClip(1, false, atlas.get(JUMP_SPRITE));
+        clips[State.ATTACK.ordinal()] = new AnimationClip(ATTACK_FRAME_TICKS, true, attackFrames); // Repeats while held
+        clips[State.DOWN_ATTACK.ordinal()] = new AnimationClip(1, false, atlas.get(DOWN_ATTACK_SPRITE));
+        explosion = new AnimationClip(DEATH_FRAME_TICKS, false, explosionFrames);
 
-    public void stopWalking() {
-        if (isWalking) {
-            walkAnimation.stop();
-            if (!isAttacking && !isJumping) {
-                playerImageView.setImage(idleImage);
-            }
-            isWalking = false;
-        }
+        show(clips[State.IDLE.ordinal()].frameAt(0));
     }
 
-    public void startJumping() {
-        if (!isJumping) {
-            stopWalking();
-            playerImageView.setImage(jumpImage);
-            isJumping = true;
+    // Queue every texture the animations use, at the size the atlas packs them at,
+    // so they are decoded before the game starts
+    public static void addTextures(AssetPreloader preloader) {
+        for (String sprite : PLAYER_SPRITES) {
+            preloader.addTexture(sprite, Player.WIDTH, Player.HEIGHT);
+        }
+        for (int i = 0; i < EXPLOSION_FRAMES; i++) {
+            preloader.addTexture(explosionSprite(i), Entities.ENEMY_SIZE, Entities.ENEMY_SIZE);
         }
     }
 
-    public void stopJumping() {
-        if (isJumping) {
-            isJumping = false;
-            if (isWalking) {
-                startWalking(facingRight);
-            } else if (!isAttacking) {
-                playerImageView.setImage(idleImage);
-            }
+    // Queue every frame the animations use into the atlas
+    public static void addSprites(TextureAtlas atlas) {
+        for (String sprite : PLAYER_SPRITES) {
+            atlas.add(sprite, Player.WIDTH, Player.HEIGHT);
+        }
+        for (int i = 0; i < EXPLOSION_FRAMES; i++) {
+            atlas.add(explosionSprite(i), Entities.ENEMY_SIZE, Entities.ENEMY_SIZE); // Played on enemy views
         }
     }
 
-    public boolean isAttacking() {
-        return isAttacking;
+    private static String explosionSprite(int frame) {
+        return "/sprites/explosion-d" + (frame + 1) + ".png";
     }
 
-    public boolean isJumping() {
-        return isJumping;
+    private static int ticks(double seconds) {
+        return Math.max(1, (int) Math.round(seconds * World.TICKS_PER_SECOND));
     }
 
-    public void startAttack() {
-        if (!isAttacking) {
-            isAttacking = true;
-            currentAttackFrame = 0;
-
-            // Adjust attack animation to last at least 0.5 seconds
-            attackAnimation.stop();
-            attackAnimation.getKeyFrames().clear();
-
-            // Duration for each frame to make total animation last 0.5 seconds
-            double frameDuration = 0.5 / attackImages.length;
-
-            for (int i = 0; i < attackImages.length; i++) {
-                final int frameIndex = i;
-                attackAnimation.getKeyFrames().add(new KeyFrame(
-                    Duration.seconds(i * frameDuration),
-                    event -> playerImageView.setImage(attackImages[frameIndex])
-                ));
+    private static State[][] buildTransitions() {
+        State[][] table = new State[STATES.length][CONDITIONS];
+        for (State from : STATES) {
+            for (int conditions = 0; conditions < CONDITIONS; conditions++) {
+                table[from.ordinal()][conditions] = next(from, conditions);
             }
-
-            // Ensure attack animation finishes after the last frame
-            attackAnimation.setOnFinished(event -> finishAttack());
-            attackAnimation.setCycleCount(1); // Single cycle for the animation
-
-            attackAnimation.playFromStart();
         }
+        return table;
     }
 
+    // The rules the table is built from, first match wins
+    private static State next(State from, int conditions) {
+        if (from == State.DOWN_ATTACK && (conditions & GROUNDED) == 0) {
+            return State.DOWN_ATTACK; // Keep diving until the player lands
+        }
+        if ((conditions & ATTACK) != 0) {
+            return State.ATTACK;
+        }
+        if ((conditions & DOWN) != 0) {
+            return State.DOWN_ATTACK;
+        }
+        if ((conditions & JUMPING) != 0) {
+            return State.JUMP;
+        }
+        if ((conditions & MOVING) != 0) {
+            return State.WALK;
+        }
+        return State.IDLE;
+    }
 
-    public void stopAttack() {
-        attackAnimation.stop();
-        isAttacking = false;
-        currentAttackFrame = 0;
+    // Show the frames for the given tick. Conditions are the bits above for that tick.
+    public void update(long tick, int conditions, boolean facingRight) {
+        State next = TRANSITIONS[state.ordinal()][conditions | (jumping ? JUMPING : 0)];
+        if (next != state) {
+            state = next;
+            stateStart = tick;
+        }
+        show(clips[state.ordinal()].frameAt(tick - stateStart));
+        setDirection(facingRight);
 
-        // Resume walking or idle based on state
-        if (isWalking) {
-            startWalking(facingRight);
-        } else if (isJumping) {
-            playerImageView.setImage(jumpImage);
-        } else {
-            playerImageView.setImage(idleImage);
+        if (flashStart >= 0) {
+            double opacity = ((tick - flashStart) / FLASH_TICKS) % 2 == 0 ? 1.0 : 0.5;
+            if (playerImageView.getOpacity() != opacity) {
+                playerImageView.setOpacity(opacity);
+            }
         }
-    }
 
-    private void finishAttack() {
-        isAttacking = false;
-        currentAttackFrame = 0;
-        if (isWalking) {
-            startWalking(facingRight);
-        } else if (isJumping) {
-            playerImageView.setImage(jumpImage);
-        } else {
-            playerImageView.setImage(idleImage);
+        // Backwards, a finished explosion is replaced by the last one
+        for (int i = dyingCount - 1; i >= 0; i--) {
+            long elapsed = tick - dyingStarts[i];
+            if (explosion.isFinished(elapsed)) {
+                dyingViews[i].setVisible(false);
+                removeDying(i);
+            } else {
+                explosion.frameAt(elapsed).applyTo(dyingViews[i]);
+            }
         }
     }
 
-    public void startDownwardAttack() {
-        if (!isAttacking) {
-            stopWalking(); // Stop walking animation
-            stopJumping(); // Stop jumping animation
-            isAttacking = true;
-            isDownwardAttack = true;
-            playerImageView.setImage(downAttackImage);
+    private void show(TextureAtlas.Region frame) {
+        if (frame != shownFrame) {
+            frame.applyTo(playerImageView);
+            shownFrame = frame;
         }
     }
 
-    public void finishDownwardAttack() {
-        isAttacking = false;
-        isDownwardAttack = false;
-
-        // Resume appropriate animation
-        if (isJumping) {
-            playerImageView.setImage(jumpImage);
-        } else if (isWalking) {
-            startWalking(facingRight);
-        } else {
-            playerImageView.setImage(idleImage);
-        }
+    public State getState() {
+        return state;
     }
-    
-    private boolean isDownwardAttack = false;
 
-    public boolean isDownwardAttack() {
-        return isDownwardAttack;
+    public void startJumping() {
+        jumping = true;
     }
 
+    public void stopJumping() {
+        jumping = false;
+    }
 
-    public void setDirection(boolean movingRight) {
+    private void setDirection(boolean movingRight) {
         if (facingRight != movingRight) {
             facingRight = movingRight;
             playerImageView.setScaleX(facingRight ? 1 : -1);
@@ -221,41 +205,41 @@ public class SpriteAnimator {
         return facingRight;
     }
 
-    private void toggleTransparency() {
-        if (isFlashing) {
-            playerImageView.setOpacity(playerImageView.getOpacity() == 1.0 ? 0.5 : 1.0);
-        }
-    }
-
-    public void startInvincibilityEffect() {
-        isFlashing = true;
-        invincibilityFlash.playFromStart();
+    // Flash the player from the given tick until stopInvincibilityEffect
+    public void startInvincibilityEffect(long tick) {
+        flashStart = tick;
     }
 
     public void stopInvincibilityEffect() {
-        isFlashing = false;
+        flashStart = -1;
         playerImageView.setOpacity(1.0);
-        invincibilityFlash.stop();
     }
 
-    public void playDeathAnimation(ImageView enemyImageView) {
-        Image[] explosionFrames = new Image[12];
-        for (int i = 0; i < 12; i++) {
-            explosionFrames[i] = new Image(getClass().getResourceAsStream(
-                "/sprites/explosion-d" + (i + 1) + ".png"));
+    // Play the explosion on an enemy's view from the given tick, then hide the view
+    public void playDeathAnimation(ImageView enemyImageView, long tick) {
+        stopDeathAnimation(enemyImageView);
+        if (dyingCount == dyingViews.length) {
+            dyingViews = Arrays.copyOf(dyingViews, dyingCount * 2);
+            dyingStarts = Arrays.copyOf(dyingStarts, dyingCount * 2);
         }
+        dyingViews[dyingCount] = enemyImageView;
+        dyingStarts[dyingCount++] = tick;
+        explosion.frameAt(0).applyTo(enemyImageView); // First frame right away
+    }
 
-        Timeline deathAnimation = new Timeline();
-        for (int i = 0; i < 12; i++) {
-            final int frameIndex = i;
-            deathAnimation.getKeyFrames().add(new KeyFrame(
-                Duration.seconds(i * (0.8 / 12)),
-                event -> enemyImageView.setImage(explosionFrames[frameIndex])
-            ));
+    // Stop a death animation early, e.g. before its view is reused for another enemy
+    public void stopDeathAnimation(ImageView enemyImageView) {
+        for (int i = dyingCount - 1; i >= 0; i--) {
+            if (dyingViews[i] == enemyImageView) {
+                removeDying(i);
+            }
         }
+    }
 
-        deathAnimation.setCycleCount(1);
-        deathAnimation.setOnFinished(event -> enemyImageView.setVisible(false));
-        deathAnimation.play();
+    private void removeDying(int i) {
+        int last = --dyingCount;
+        dyingViews[i] = dyingViews[last];
+        dyingStarts[i] = dyingStarts[last];
+        dyingViews[last] = null;
     }
 }
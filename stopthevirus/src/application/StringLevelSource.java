@@ -0,0 +1,52 @@
+// StringLevelSource.java
+
+package application;
+
+// A level written as rows of cell codes, like the ones in LevelData
+public class StringLevelSource implements LevelSource {
+
+    private final String[] rows;
+    private final int columns;
+
+    public StringLevelSource(String[] rows) {
+        this.rows = rows;
+        int width = 0;
+        for (String line : rows) {
+            width = Math.max(width, line.length());
+        }
+        this.columns = width;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public int getRows() {
+        return rows.length;
+    }
+
+    @Override
+    public boolean isSolid(int col, int row) {
+        return getCell(col, row) == '1';
+    }
+
+    @Override
+    public void readEntities(int firstColumn, int lastColumn, EntityConsumer consumer) {
+        for (int col = Math.max(firstColumn, 0); col <= Math.min(lastColumn, columns - 1); col++) {
+            for (int row = 0; row < rows.length; row++) {
+                char code = getCell(col, row);
+                if (code >= '2' && code <= '6') {
+                    consumer.accept(col, row, code);
+                }
+            }
+        }
+    }
+
+    // Short rows are padded with empty cells
+    public char getCell(int col, int row) {
+        String line = rows[row];
+        return col < line.length() ? line.charAt(col) : '0';
+    }
+}
@@ -0,0 +1,153 @@
+// TextureAtlas.java
+
+package application;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Packs still sprites into a few large page textures when the game starts.
+// Each sprite is decoded at the size it is drawn at and copied into a region of a page,
+// and a view shows it by pointing its viewport at that region. Switching between two
+// sprites on the same page, like animation frames, then only moves the viewport instead
+// of swapping the view's texture. Animated GIFs can't be packed and stay separate images.
+public class TextureAtlas {
+
+    public static final int PAGE_SIZE = 1024; // Width and maximum height of a page
+    private static final int PADDING = 2; // Transparent gap so smoothing never samples a neighbour
+
+    private final List<Sprite> pending = new ArrayList<>();
+    private final Map<String, Region> regions = new HashMap<>();
+    private final List<WritableImage> pages = new ArrayList<>();
+
+    // Part of a page holding one sprite
+    public static final class Region {
+        private final Image page;
+        private final Rectangle2D viewport;
+
+        Region(Image page, Rectangle2D viewport) {
+            this.page = page;
+            this.viewport = viewport;
+        }
+
+        public Image getPage() {
+            return page;
+        }
+
+        public Rectangle2D getViewport() {
+            return viewport;
+        }
+
+        // Show the sprite in a view, only changing its texture if it was on another page
+        public void applyTo(ImageView view) {
+            if (view.getImage() != page) {
+                view.setImage(page);
+            }
+            view.setViewport(viewport);
+        }
+    }
+
+    private static final class Sprite {
+        final String resourcePath;
+        final int width;
+        final int height;
+
+        Sprite(String resourcePath, int width, int height) {
+            this.resourcePath = resourcePath;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    // Queue a sprite to be packed at the size it is drawn at, before build
+    public void add(String resourcePath, double width, double height) {
+        if (!regions.containsKey(resourcePath)) {
+            pending.add(new Sprite(resourcePath, (int) Math.ceil(width), (int) Math.ceil(height)));
+        }
+    }
+
+    // Pack the queued sprites into pages, in shelves from the tallest sprite down.
+    // The sprites come from the TextureCache, so preloading them first keeps this fast.
+    public void build() {
+        pending.sort(Comparator.comparingInt((Sprite sprite) -> sprite.height).reversed());
+
+        List<Sprite> pageSprites = new ArrayList<>();
+        List<int[]> pagePositions = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        for (Sprite sprite : pending) {
+            if (regions.containsKey(sprite.resourcePath)) {
+                continue; // Queued twice
+            }
+            if (x + sprite.width > PAGE_SIZE) { // Next shelf
+                x = 0;
+                y += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            if (y + sprite.height > PAGE_SIZE && !pageSprites.isEmpty()) { // Next page
+                writePage(pageSprites, pagePositions, y + shelfHeight);
+                pageSprites.clear();
+                pagePositions.clear();
+                x = 0;
+                y = 0;
+                shelfHeight = 0;
+            }
+            pageSprites.add(sprite);
+            pagePositions.add(new int[] {x, y});
+            regions.put(sprite.resourcePath, null); // Taken, filled in by writePage
+            x += sprite.width + PADDING;
+            shelfHeight = Math.max(shelfHeight, sprite.height);
+        }
+        if (!pageSprites.isEmpty()) {
+            writePage(pageSprites, pagePositions, y + shelfHeight);
+        }
+        pending.clear();
+    }
+
+    // Copy the sprites into a new page just tall enough for them, then drop the
+    // individually decoded copies since only the page is drawn from now on
+    private void writePage(List<Sprite> sprites, List<int[]> positions, int height) {
+        WritableImage page = new WritableImage(PAGE_SIZE, height);
+        PixelWriter writer = page.getPixelWriter();
+        for (int i = 0; i < sprites.size(); i++) {
+            Sprite sprite = sprites.get(i);
+            int[] position = positions.get(i);
+            Image image = TextureCache.get(sprite.resourcePath, sprite.width, sprite.height);
+            writer.setPixels(position[0], position[1], sprite.width, sprite.height, image.getPixelReader(), 0, 0);
+            TextureCache.evict(sprite.resourcePath, sprite.width, sprite.height);
+            regions.put(sprite.resourcePath, new Region(page,
+                new Rectangle2D(position[0], position[1], sprite.width, sprite.height)));
+        }
+        pages.add(page);
+    }
+
+    // Region of a packed sprite, null if it isn't in the atlas
+    public Region find(String resourcePath) {
+        return regions.get(resourcePath);
+    }
+
+    public Region get(String resourcePath) {
+        Region region = regions.get(resourcePath);
+        if (region == null) {
+            throw new IllegalArgumentException("Sprite not in the atlas: " + resourcePath);
+        }
+        return region;
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public int size() {
+        return regions.size();
+    }
+}
@@ -0,0 +1,106 @@
+// TextureCache.java
+
+package application;
+
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class TextureCache {
+
+    private static final Map<String, Image> textures = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong residentBytes = new AtomicLong();
+
+    private TextureCache() {
+    }
+
+    // Get a texture at its native size
+    public static Image get(String resourcePath) {
+        return get(resourcePath, 0, 0);
+    }
+
+    // Get a texture scaled to the given size, decoding it only the first time it is requested
+    public static Image get(String resourcePath, double width, double height) {
+        String key = key(resourcePath, width, height);
+        Image image = textures.get(key);
+        if (image != null) {
+            hits.incrementAndGet();
+            return image;
+        }
+        return textures.computeIfAbsent(key, k -> {
+            misses.incrementAndGet();
+            GameEvents.AssetDecode event = new GameEvents.AssetDecode();
+            event.begin();
+            Image decoded = decode(resourcePath, width, height);
+            long bytes = sizeInBytes(decoded);
+            residentBytes.addAndGet(bytes);
+            if (event.shouldCommit()) {
+                event.resource = resourcePath;
+                event.width = (int) decoded.getWidth();
+                event.height = (int) decoded.getHeight();
+                event.bytes = bytes;
+                event.commit();
+            }
+            return decoded;
+        });
+    }
+
+    // Forget a texture, e.g. once it has been copied into a TextureAtlas page
+    public static void evict(String resourcePath, double width, double height) {
+        Image image = textures.remove(key(resourcePath, width, height));
+        if (image != null) {
+            residentBytes.addAndGet(-sizeInBytes(image));
+        }
+    }
+
+    private static Image decode(String resourcePath, double width, double height) {
+        try (InputStream stream = TextureCache.class.getResourceAsStream(resourcePath)) {
+            if (stream == null) {
+                throw new IllegalArgumentException("Resource not found: " + resourcePath);
+            }
+            if (width <= 0 || height <= 0) {
+                return new Image(stream);
+            }
+            return new Image(stream, width, height, false, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error loading image: " + resourcePath, e);
+        }
+    }
+
+    private static String key(String resourcePath, double width, double height) {
+        return resourcePath + "@" + width + "x" + height;
+    }
+
+    // Decoded images are held as 32-bit ARGB pixels
+    private static long sizeInBytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    public static int size() {
+        return textures.size();
+    }
+
+    // One-line summary of the cache usage
+    public static String report() {
+        return String.format("Textures: %d resident (%.1f MB), %d hits, %d misses",
+            size(), getResidentBytes() / (1024.0 * 1024.0), getHits(), getMisses());
+    }
+}
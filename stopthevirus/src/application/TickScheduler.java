@@ -0,0 +1,142 @@
+// TickScheduler.java
+
+package application;
+
+// Runs delayed and repeating tasks on game ticks instead of wall-clock Timelines.
+// Timers are kept in a hashed wheel: each slot holds the timers whose deadline falls on it,
+// so scheduling and cancelling are O(1) and advancing only looks at one slot.
+// Nothing runs while the scheduler isn't advanced, so pausing the game freezes every timer.
+public class TickScheduler {
+
+    private static final int DEFAULT_SLOTS = 256; // Rounded up to a power of two
+
+    // A reusable timer, schedule it again for another run without allocating
+    public static final class Timer {
+        private final Runnable task;
+        private Timer previous; // Neighbours in the slot list, null while not scheduled
+        private Timer next;
+        private long deadline; // Tick the timer fires on
+        private int period; // Ticks between runs, 0 for a one-shot timer
+
+        public Timer(Runnable task) {
+            this.task = task;
+        }
+
+        public boolean isScheduled() {
+            return next != null;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        // Take the timer out of its list
+        public void cancel() {
+            if (next != null) {
+                previous.next = next;
+                next.previous = previous;
+                previous = null;
+                next = null;
+            }
+        }
+
+        private void append(Timer head) {
+            previous = head.previous;
+            next = head;
+            head.previous.next = this;
+            head.previous = this;
+        }
+    }
+
+    private final Timer[] slots; // Sentinel head of each slot's circular list
+    private final Timer due = newHead(); // Timers firing on the current tick
+    private final int mask;
+    private long tick;
+
+    public TickScheduler() {
+        this(DEFAULT_SLOTS);
+    }
+
+    public TickScheduler(int slotCount) {
+        int size = Integer.highestOneBit(Math.max(slotCount - 1, 1)) << 1;
+        slots = new Timer[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = newHead();
+        }
+        mask = size - 1;
+    }
+
+    private static Timer newHead() {
+        Timer head = new Timer(null);
+        head.previous = head;
+        head.next = head;
+        return head;
+    }
+
+    // Ticks the scheduler has been advanced
+    public long getTick() {
+        return tick;
+    }
+
+    // Run the timer once, delayTicks from now (at least on the next tick)
+    public void schedule(Timer timer, int delayTicks) {
+        schedule(timer, delayTicks, 0);
+    }
+
+    // Run the timer delayTicks from now, then every periodTicks until cancelled
+    public void schedule(Timer timer, int delayTicks, int periodTicks) {
+        timer.cancel();
+        timer.period = periodTicks;
+        insert(timer, tick + Math.max(delayTicks, 1));
+    }
+
+    // Convenience for one-off tasks that don't need to be cancelled or reused
+    public Timer schedule(int delayTicks, Runnable task) {
+        Timer timer = new Timer(task);
+        schedule(timer, delayTicks);
+        return timer;
+    }
+
+    private void insert(Timer timer, long deadline) {
+        timer.deadline = deadline;
+        timer.append(slots[(int) (deadline & mask)]);
+    }
+
+    // Move time forward one tick and run every timer due on it, in the order they were scheduled
+    public void advance() {
+        tick++;
+
+        // Collect the due timers first, so tasks can freely schedule and cancel
+        Timer head = slots[(int) (tick & mask)];
+        Timer timer = head.next;
+        while (timer != head) {
+            Timer next = timer.next;
+            if (timer.deadline == tick) {
+                timer.cancel();
+                timer.append(due);
+            }
+            timer = next;
+        }
+
+        while (due.next != due) {
+            timer = due.next;
+            timer.cancel();
+            if (timer.period > 0) {
+                insert(timer, tick + timer.period);
+            }
+            timer.task.run();
+        }
+    }
+
+    // Drop every pending timer, e.g. when a new level is loaded
+    public void clear() {
+        for (Timer head : slots) {
+            while (head.next != head) {
+                head.next.cancel();
+            }
+        }
+        while (due.next != due) {
+            due.next.cancel();
+        }
+    }
+}
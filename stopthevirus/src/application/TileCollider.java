@@ -0,0 +1,102 @@
+// TileCollider.java
+
+package application;
+
+public class TileCollider {
+
+    private final TileGrid tiles;
+    private boolean hit; // Whether the last sweep was stopped by a tile
+
+    public TileCollider(TileGrid tiles) {
+        this.tiles = tiles;
+    }
+
+    // True if the last sweepX or sweepY call was clamped by a solid tile
+    public boolean hasHit() {
+        return hit;
+    }
+
+    // Distance a box can move horizontally before a solid tile blocks it.
+    // A tile blocks when the box would touch its side while overlapping it vertically,
+    // so the box stops one pixel short of walls, like the old pixel-by-pixel stepping.
+    public double sweepX(double x, double y, double width, double height, double dx) {
+        hit = false;
+        if (dx == 0) {
+            return 0;
+        }
+
+        int row0 = TileGrid.firstOverlapping(y);
+        int row1 = TileGrid.lastOverlapping(y + height);
+        double distance = Math.abs(dx);
+
+        if (dx > 0) {
+            // Columns touched by the box between its first step and its final position
+            int col0 = TileGrid.firstTouching(x + 1);
+            int col1 = TileGrid.lastTouching(x + width + dx);
+            for (int col = col0; col <= col1; col++) {
+                if (!tiles.isSolidInRange(col, row0, col, row1)) {
+                    continue;
+                }
+                double left = col * TileGrid.TILE_SIZE;
+                double right = left + TileGrid.TILE_SIZE;
+                double firstStep = Math.max(1, Math.ceil(left - x - width));
+                if (firstStep <= Math.min(distance, right - x)) {
+                    hit = true;
+                    return firstStep - 1;
+                }
+            }
+            return dx;
+        }
+
+        int col0 = TileGrid.firstTouching(x - distance);
+        int col1 = TileGrid.lastTouching(x + width - 1);
+        for (int col = col1; col >= col0; col--) {
+            if (!tiles.isSolidInRange(col, row0, col, row1)) {
+                continue;
+            }
+            double left = col * TileGrid.TILE_SIZE;
+            double right = left + TileGrid.TILE_SIZE;
+            double firstStep = Math.max(1, Math.ceil(x - right));
+            if (firstStep <= Math.min(distance, x + width - left)) {
+                hit = true;
+                return -(firstStep - 1);
+            }
+        }
+        return dx;
+    }
+
+    // Distance a box can move vertically before it lands on top of a solid tile
+    // or hits its head on the underside of one. Tiles touching the box's sides count.
+    public double sweepY(double x, double y, double width, double height, double dy) {
+        hit = false;
+        if (dy == 0) {
+            return 0;
+        }
+
+        int col0 = TileGrid.firstTouching(x);
+        int col1 = TileGrid.lastTouching(x + width);
+
+        if (dy > 0) {
+            // First tile top at or below the feet within reach of this move
+            double bottom = y + height;
+            for (int row = (int) Math.ceil(bottom / TileGrid.TILE_SIZE);
+                 row * TileGrid.TILE_SIZE < bottom + dy; row++) {
+                if (tiles.isSolidInRange(col0, row, col1, row)) {
+                    hit = true;
+                    return row * TileGrid.TILE_SIZE - bottom;
+                }
+            }
+            return dy;
+        }
+
+        // First tile bottom at or above the head within reach of this move
+        for (int row = (int) Math.floor(y / TileGrid.TILE_SIZE) - 1;
+             (row + 1) * TileGrid.TILE_SIZE > y + dy; row--) {
+            if (tiles.isSolidInRange(col0, row, col1, row)) {
+                hit = true;
+                return (row + 1) * TileGrid.TILE_SIZE - y;
+            }
+        }
+        return dy;
+    }
+}
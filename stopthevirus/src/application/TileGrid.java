@@ -0,0 +1,185 @@
+// TileGrid.java
+
+package application;
+
+import java.util.ArrayDeque;
+
+// Solid cells of the current level, read from its LevelSource in windows of WINDOW_COLUMNS
+// columns. A window is decoded the first time a query reaches it and dropped again by
+// releaseWindowsOutside, so only the part of the level around the player is held in memory.
+public class TileGrid {
+
+    public static final int TILE_SIZE = 60; // Width and height of a tile in pixels
+    public static final int WINDOW_COLUMNS = 32;
+    private static final int WINDOW_SHIFT = Integer.numberOfTrailingZeros(WINDOW_COLUMNS);
+    private static final int WINDOW_MASK = WINDOW_COLUMNS - 1;
+
+    private LevelSource source;
+    private byte[][] windows = new byte[0][]; // Cells of each decoded window, row-major, 1 for solid
+    private final ArrayDeque<byte[]> freeWindows = new ArrayDeque<>(); // Released buffers for reuse
+    private int residentWindows;
+    private int columns;
+    private int rows;
+
+    // Rebuild the grid from the rows of a level
+    public void load(String[] levelData) {
+        load(new StringLevelSource(levelData));
+    }
+
+    // Switch to a new level, reusing the window buffers when possible
+    public void load(LevelSource source) {
+        if (source.getRows() != rows) {
+            freeWindows.clear(); // Buffers are sized for the old row count
+        } else {
+            releaseWindowsOutside(0, -1);
+        }
+        this.source = source;
+        columns = source.getColumns();
+        rows = source.getRows();
+        windows = new byte[(columns + WINDOW_COLUMNS - 1) >> WINDOW_SHIFT][];
+        residentWindows = 0;
+    }
+
+    // Drop the decoded windows outside the inclusive range, they are read again if needed
+    public void releaseWindowsOutside(int firstWindow, int lastWindow) {
+        for (int i = 0; i < windows.length; i++) {
+            if (windows[i] != null && (i < firstWindow || i > lastWindow)) {
+                freeWindows.push(windows[i]);
+                windows[i] = null;
+                residentWindows--;
+            }
+        }
+    }
+
+    // Number of windows currently decoded
+    public int getResidentWindows() {
+        return residentWindows;
+    }
+
+    public int getWindowCount() {
+        return windows.length;
+    }
+
+    // Decode the windows covering the column range now. Reading decoded windows doesn't
+    // change the grid, so several threads can then read those columns at once.
+    public void ensureResident(int firstColumn, int lastColumn) {
+        int first = Math.max(firstColumn, 0);
+        int last = Math.min(lastColumn, columns - 1);
+        for (int col = first; col <= last; col = (col | WINDOW_MASK) + 1) {
+            window(col >> WINDOW_SHIFT);
+        }
+    }
+
+    // Window a column falls in
+    public static int windowOf(int col) {
+        return col >> WINDOW_SHIFT;
+    }
+
+    private byte[] window(int index) {
+        byte[] cells = windows[index];
+        if (cells == null) {
+            cells = freeWindows.isEmpty() ? new byte[WINDOW_COLUMNS * rows] : freeWindows.pop();
+            int firstColumn = index << WINDOW_SHIFT;
+            for (int row = 0; row < rows; row++) {
+                for (int i = 0; i < WINDOW_COLUMNS; i++) {
+                    int col = firstColumn + i;
+                    boolean solid = col < columns && source.isSolid(col, row);
+                    cells[row * WINDOW_COLUMNS + i] = (byte) (solid ? 1 : 0);
+                }
+            }
+            windows[index] = cells;
+            residentWindows++;
+        }
+        return cells;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getWidth() {
+        return columns * TILE_SIZE;
+    }
+
+    // Cells outside the level are never solid
+    public boolean isSolid(int col, int row) {
+        if (col < 0 || row < 0 || col >= columns || row >= rows) {
+            return false;
+        }
+        return window(col >> WINDOW_SHIFT)[row * WINDOW_COLUMNS + (col & WINDOW_MASK)] != 0;
+    }
+
+    // Check whether any cell in the inclusive column and row range is solid
+    public boolean isSolidInRange(int col0, int row0, int col1, int row1) {
+        col0 = Math.max(col0, 0);
+        row0 = Math.max(row0, 0);
+        col1 = Math.min(col1, columns - 1);
+        row1 = Math.min(row1, rows - 1);
+
+        // Scan one window at a time
+        for (int start = col0; start <= col1; start = (start | WINDOW_MASK) + 1) {
+            byte[] cells = window(start >> WINDOW_SHIFT);
+            int first = start & WINDOW_MASK;
+            int last = Math.min(col1 - start + first, WINDOW_MASK);
+            for (int row = row0; row <= row1; row++) {
+                int index = row * WINDOW_COLUMNS + first;
+                for (int i = first; i <= last; i++, index++) {
+                    if (cells[index] != 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // True if the box overlaps the interior of a solid tile (shared edges do not count)
+    public boolean overlapsSolid(double minX, double minY, double maxX, double maxY) {
+        return isSolidInRange(firstOverlapping(minX), firstOverlapping(minY),
+                              lastOverlapping(maxX), lastOverlapping(maxY));
+    }
+
+    // True if the box overlaps or touches a solid tile, matching Bounds.intersects
+    public boolean touchesSolid(double minX, double minY, double maxX, double maxY) {
+        return topmostSolidRow(minX, minY, maxX, maxY) >= 0;
+    }
+
+    // Row of the highest solid tile that overlaps or touches the box, or -1 if there is none
+    public int topmostSolidRow(double minX, double minY, double maxX, double maxY) {
+        int col0 = Math.max(firstTouching(minX), 0);
+        int col1 = Math.min(lastTouching(maxX), columns - 1);
+        int row0 = Math.max(firstTouching(minY), 0);
+        int row1 = Math.min(lastTouching(maxY), rows - 1);
+
+        for (int row = row0; row <= row1; row++) {
+            if (isSolidInRange(col0, row, col1, row)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // Index of the first cell whose interior a span starting at min overlaps
+    public static int firstOverlapping(double min) {
+        return (int) Math.floor(min / TILE_SIZE);
+    }
+
+    // Index of the last cell whose interior a span ending at max overlaps
+    public static int lastOverlapping(double max) {
+        return (int) Math.ceil(max / TILE_SIZE) - 1;
+    }
+
+    // Index of the first cell a span starting at min overlaps or touches
+    public static int firstTouching(double min) {
+        return (int) Math.ceil(min / TILE_SIZE) - 1;
+    }
+
+    // Index of the last cell a span ending at max overlaps or touches
+    public static int lastTouching(double max) {
+        return (int) Math.floor(max / TILE_SIZE);
+    }
+}
@@ -0,0 +1,137 @@
+// TileMapRenderer.java
+
+package application;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+
+import java.util.ArrayDeque;
+
+// Draws the solid tiles as a few pre-baked chunk images instead of one node per tile.
+// Only the chunks under the camera are baked and attached, so the terrain costs a
+// handful of nodes no matter how long the level is.
+public class TileMapRenderer {
+
+    public static final int CHUNK_COLUMNS = 8; // Tiles per chunk horizontally
+    private static final int CHUNK_WIDTH = CHUNK_COLUMNS * TileGrid.TILE_SIZE;
+    private static final double MARGIN = TileGrid.TILE_SIZE * 2; // Bake chunks slightly before they scroll in
+
+    private final Pane tileLayer = new Pane(); // Holds the attached chunk views
+    private final Image blockImage;
+    private final ArrayDeque<ImageView> freeViews = new ArrayDeque<>(); // Detached chunks ready for reuse
+    private ImageView[] chunkViews = new ImageView[0]; // Attached view per chunk index, null if detached
+    private int shownFirst = 0; // Chunk range in view at the last update, empty when first > last
+    private int shownLast = -1;
+    private TileGrid tiles;
+    private int chunkHeight;
+    private int[] clearPixels = new int[0]; // Transparent pixels used to wipe a reused chunk
+
+    public TileMapRenderer(String blockSprite) {
+        this.blockImage = TextureCache.get(blockSprite, TileGrid.TILE_SIZE, TileGrid.TILE_SIZE);
+        tileLayer.setMouseTransparent(true);
+    }
+
+    public Pane getView() {
+        return tileLayer;
+    }
+
+    // Number of chunk nodes currently in the scene
+    public int getAttachedChunks() {
+        return tileLayer.getChildren().size();
+    }
+
+    // Start drawing a newly loaded level, dropping all chunks of the previous one
+    public void load(TileGrid tiles) {
+        this.tiles = tiles;
+        tileLayer.getChildren().clear();
+
+        int height = tiles.getRows() * TileGrid.TILE_SIZE;
+        if (height != chunkHeight) {
+            // Chunk images of another height can't be reused
+            freeViews.clear();
+            chunkHeight = height;
+            clearPixels = new int[CHUNK_WIDTH * Math.max(chunkHeight, 1)];
+        } else {
+            for (ImageView view : chunkViews) {
+                if (view != null) {
+                    freeViews.push(view);
+                }
+            }
+        }
+
+        int chunks = (tiles.getColumns() + CHUNK_COLUMNS - 1) / CHUNK_COLUMNS;
+        chunkViews = new ImageView[chunks];
+        shownFirst = 0;
+        shownLast = -1;
+    }
+
+    // Attach the chunks within view of the camera and detach the rest.
+    // Only the chunks that scrolled in or out since the last update are visited.
+    public void update(double cameraLeft) {
+        if (tiles == null || chunkHeight == 0) {
+            return;
+        }
+        int first = Math.max((int) Math.floor((cameraLeft - MARGIN) / CHUNK_WIDTH), 0);
+        int last = Math.min((int) Math.floor((cameraLeft + World.VIEW_WIDTH + MARGIN) / CHUNK_WIDTH),
+            chunkViews.length - 1);
+
+        if (first == shownFirst && last == shownLast) {
+            return;
+        }
+
+        for (int chunk = shownFirst; chunk <= shownLast; chunk++) {
+            if ((chunk < first || chunk > last) && chunkViews[chunk] != null) {
+                detach(chunk);
+            }
+        }
+        for (int chunk = first; chunk <= last; chunk++) {
+            if ((chunk < shownFirst || chunk > shownLast) && chunkViews[chunk] == null && hasSolidTiles(chunk)) {
+                attach(chunk);
+            }
+        }
+        shownFirst = first;
+        shownLast = last;
+    }
+
+    private void attach(int chunk) {
+        ImageView view = freeViews.isEmpty() ? new ImageView(new WritableImage(CHUNK_WIDTH, chunkHeight)) : freeViews.pop();
+        bake(chunk, (WritableImage) view.getImage());
+        view.setTranslateX(chunk * CHUNK_WIDTH);
+        chunkViews[chunk] = view;
+        tileLayer.getChildren().add(view);
+    }
+
+    private void detach(int chunk) {
+        ImageView view = chunkViews[chunk];
+        chunkViews[chunk] = null;
+        tileLayer.getChildren().remove(view);
+        freeViews.push(view);
+    }
+
+    // Copy the block texture into every solid cell of the chunk
+    private void bake(int chunk, WritableImage image) {
+        PixelWriter writer = image.getPixelWriter();
+        writer.setPixels(0, 0, CHUNK_WIDTH, chunkHeight, PixelFormat.getIntArgbInstance(), clearPixels, 0, CHUNK_WIDTH);
+
+        PixelReader block = blockImage.getPixelReader();
+        int size = TileGrid.TILE_SIZE;
+        int firstColumn = chunk * CHUNK_COLUMNS;
+        for (int row = 0; row < tiles.getRows(); row++) {
+            for (int col = 0; col < CHUNK_COLUMNS; col++) {
+                if (tiles.isSolid(firstColumn + col, row)) {
+                    writer.setPixels(col * size, row * size, size, size, block, 0, 0);
+                }
+            }
+        }
+    }
+
+    private boolean hasSolidTiles(int chunk) {
+        int firstColumn = chunk * CHUNK_COLUMNS;
+        return tiles.isSolidInRange(firstColumn, 0, firstColumn + CHUNK_COLUMNS - 1, tiles.getRows() - 1);
+    }
+}
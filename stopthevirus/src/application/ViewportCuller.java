@@ -0,0 +1,127 @@
+// ViewportCuller.java
+
+package application;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps only the entity nodes near the camera in the scene graph.
+// Nodes are attached once they come within ATTACH_MARGIN of the view and detached only
+// once they are farther than DETACH_MARGIN, so an entity pacing at the edge doesn't flap.
+// Tracked nodes are kept in a spatial hash of columns, so an update only looks at the
+// attached nodes and at the detached ones in the columns around the view, not at every
+// node of the level.
+public class ViewportCuller {
+
+    public static final double ATTACH_MARGIN = 2 * TileGrid.TILE_SIZE;
+    public static final double DETACH_MARGIN = 5 * TileGrid.TILE_SIZE;
+    private static final double COLUMN_WIDTH = 4 * TileGrid.TILE_SIZE;
+
+    private final Pane layer = new Pane(); // Holds the attached nodes
+    private final SpatialHash columns = new SpatialHash(COLUMN_WIDTH); // Tracked nodes by id, x-range only
+    private final Map<ImageView, Integer> ids = new HashMap<>(); // Id of each tracked node, attached or not
+    private ImageView[] nodes = new ImageView[64]; // Tracked node by id, null for a free id
+    private int[] freeIds = new int[64]; // Ids of removed nodes, reused first
+    private int freeCount;
+    private int nextId; // Ids below this have been handed out
+    private double cameraLeft;
+
+    public Pane getView() {
+        return layer;
+    }
+
+    // Start culling a node, attaching it right away if it is near the camera
+    public void add(ImageView node) {
+        if (ids.containsKey(node)) {
+            return;
+        }
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == nodes.length) {
+            nodes = Arrays.copyOf(nodes, id * 2);
+        }
+        nodes[id] = node;
+        ids.put(node, id);
+        columns.insert(id, node.getTranslateX(), 0, node.getFitWidth(), 0);
+        if (isNear(node, ATTACH_MARGIN)) {
+            layer.getChildren().add(node);
+        }
+    }
+
+    // Stop culling a node and take it out of the scene
+    public void remove(ImageView node) {
+        Integer id = ids.remove(node);
+        if (id == null) {
+            return;
+        }
+        nodes[id] = null;
+        columns.remove(id);
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        if (node.getParent() == layer) {
+            layer.getChildren().remove(node);
+        }
+    }
+
+    // Call after moving a tracked node. It only changes columns once every few hundred pixels.
+    public void moved(ImageView node) {
+        Integer id = ids.get(node);
+        if (id != null) {
+            columns.update(id, node.getTranslateX(), 0, node.getFitWidth(), 0);
+        }
+    }
+
+    public void clear() {
+        ids.clear();
+        Arrays.fill(nodes, null);
+        freeCount = 0;
+        nextId = 0;
+        columns.clear();
+        layer.getChildren().clear();
+    }
+
+    // Attach and detach nodes for the camera's new position
+    public void update(double cameraLeft) {
+        this.cameraLeft = cameraLeft;
+
+        // Only attached nodes can need detaching, backwards so removing doesn't skip any
+        List<Node> attached = layer.getChildren();
+        for (int i = attached.size() - 1; i >= 0; i--) {
+            if (!isNear((ImageView) attached.get(i), DETACH_MARGIN)) {
+                attached.remove(i);
+            }
+        }
+
+        // Only nodes in the columns the attach band touches can need attaching
+        int count = columns.query(cameraLeft - ATTACH_MARGIN, 0, World.VIEW_WIDTH + 2 * ATTACH_MARGIN, 0);
+        for (int r = 0; r < count; r++) {
+            ImageView node = nodes[columns.getResult(r)];
+            if (node.getParent() != layer && isNear(node, ATTACH_MARGIN)) {
+                attached.add(node);
+            }
+        }
+    }
+
+    private boolean isNear(ImageView node, double margin) {
+        double left = node.getTranslateX();
+        double right = left + node.getFitWidth();
+        return right >= cameraLeft - margin && left <= cameraLeft + World.VIEW_WIDTH + margin;
+    }
+
+    // Nodes currently in the scene graph
+    public int getLiveCount() {
+        return layer.getChildren().size();
+    }
+
+    // Nodes being culled, attached or not
+    public int getTrackedCount() {
+        return ids.size();
+    }
+}
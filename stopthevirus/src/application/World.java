@@ -0,0 +1,688 @@
+// World.java
+
+package application;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+// Game state and rules, independent of JavaFX so it can run without a display
+public class World {
+
+    public static final int TICKS_PER_SECOND = GameClock.DEFAULT_TICK_RATE;
+    public static final double VIEW_WIDTH = 1280; // Width of the camera in pixels
+    public static final int DEFAULT_MAX_PROJECTILES = 256; // Cannonballs in flight at once
+    private static final int INVINCIBILITY_TICKS = 2 * TICKS_PER_SECOND;
+    private static final int ENEMY_REMOVAL_TICKS = TICKS_PER_SECOND; // Time for the death animation
+    private static final double SPAWN_X = 0;
+    private static final double SPAWN_Y = 600;
+    private static final double STREAM_MARGIN = VIEW_WIDTH; // Entities are spawned this far beyond the camera
+    private static final double RELEASE_MARGIN = 2 * VIEW_WIDTH; // and released once this far behind it
+
+    private final TileGrid tileGrid = new TileGrid(); // Solid tiles of the current level
+    private final TileCollider tileCollider = new TileCollider(tileGrid);
+    private final Player player = new Player();
+    private final Entities entities = new Entities(tileGrid); // Enemies, portals and finish lines
+    private final List<CannonBall> projectiles = new ArrayList<>();
+    private final SpatialHash projectileCells = new SpatialHash(); // Cannonballs in flight by id
+    private final TickScheduler scheduler = new TickScheduler(); // Delayed and repeating game events
+    private final TickScheduler.Timer invincibilityTimer = new TickScheduler.Timer(this::endInvincibility);
+    private final ProjectilePool projectilePool;
+    private final List<WorldListener> listeners = new ArrayList<>();
+    private final LongConsumer contactHit = entity -> takeDamageFromEnemy(entities.getContactDamage(entity));
+    private final LongConsumer attackHit = entity -> damageEnemy(entity, 50);
+    private final LongConsumer downwardAttackHit = entity -> {
+        damageEnemy(entity, 50);
+        bounce();
+    };
+
+    private String levelName;
+    private LevelSource levelSource;
+    private String nextLevel; // Level the portals lead to
+    private boolean[] spawnedWindows = new boolean[0]; // Column windows whose entities are in the world
+    private int firstSpawnedWindow; // Window range spawned for the current camera position
+    private int lastSpawnedWindow;
+    private final Set<Integer> killedEnemyCells = new HashSet<>(); // Cells of killed enemies, never respawned
+    private int levelWidth;
+    private double cameraLeft; // Left edge of the camera, following the player
+    private boolean isAttacking = false; // Attack hitbox already created for the current press
+    private boolean downwardAttack = false; // Player is diving with a downward attack
+    private long tick; // Ticks simulated so far
+    private FrameProfiler profiler = new FrameProfiler(); // Disabled unless a debug view turns it on
+
+    public World() {
+        this(DEFAULT_MAX_PROJECTILES);
+    }
+
+    public World(int maxProjectiles) {
+        projectilePool = new ProjectilePool(maxProjectiles, scheduler);
+    }
+
+    public void addListener(WorldListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(WorldListener listener) {
+        listeners.remove(listener);
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public TileGrid getTileGrid() {
+        return tileGrid;
+    }
+
+    public Entities getEntities() {
+        return entities;
+    }
+
+    public List<CannonBall> getProjectiles() {
+        return projectiles;
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public ProjectilePool getProjectilePool() {
+        return projectilePool;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public int getLevelWidth() {
+        return levelWidth;
+    }
+
+    public double getCameraLeft() {
+        return cameraLeft;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    // Hash of the simulation state, equal between two runs only if they behaved the same.
+    // Covers the tick, level, camera, player, entities and projectiles. Entities and
+    // projectiles are hashed one by one and summed, so the order they happen to be stored
+    // in doesn't change the hash, only what they are doing does.
+    public long stateHash() {
+        long hash = mix(0, tick);
+        hash = mix(hash, levelName != null ? levelName.hashCode() : 0);
+        hash = mix(hash, cameraLeft);
+        hash = mix(hash, player.getX());
+        hash = mix(hash, player.getY());
+        hash = mix(hash, player.getVelocityY());
+        hash = mix(hash, player.getHp());
+        hash = mix(hash, (player.isFacingRight() ? 1 : 0) | (player.isInvincible() ? 2 : 0) | (downwardAttack ? 4 : 0));
+        long entitySum = 0;
+        Components.Body bodies = entities.getBodies();
+        for (int i = 0; i < bodies.size(); i++) {
+            long entityHash = mix(0, bodies.getSpawnX(i));
+            entityHash = mix(entityHash, bodies.getSpawnY(i));
+            entityHash = mix(entityHash, bodies.getX(i));
+            entityHash = mix(entityHash, bodies.getY(i));
+            entitySum += mix(entityHash, entities.isDead(bodies.entityAt(i)) ? 0 : 1);
+        }
+        long projectileSum = 0;
+        for (CannonBall cannonBall : projectiles) {
+            long projectileHash = mix(0, cannonBall.getX());
+            projectileHash = mix(projectileHash, cannonBall.getY());
+            projectileSum += mix(projectileHash, cannonBall.isExploding() ? 1 : 0);
+        }
+        hash = mix(hash, bodies.size());
+        hash = mix(hash, entitySum);
+        hash = mix(hash, projectiles.size());
+        return mix(hash, projectileSum);
+    }
+
+    private static long mix(long hash, double value) {
+        return mix(hash, Double.doubleToLongBits(value));
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    public boolean isDownwardAttack() {
+        return downwardAttack;
+    }
+
+    // Camera left edge that keeps the player centred, held still near the ends of the level
+    public double cameraLeftFor(double playerX, double currentLeft) {
+        double half = VIEW_WIDTH / 2;
+        if (playerX > half && playerX < levelWidth - half) {
+            return playerX - half;
+        }
+        return currentLeft;
+    }
+
+    // Load one of the levels in the built-in level pack by name
+    public void loadLevel(String levelName) {
+        LevelPack.Level level = LevelPack.builtIn().get(levelName);
+        loadLevel(levelName, level, level.getNextLevel());
+    }
+
+    // Replace the current level with the given rows, see LevelData for the cell codes
+    public void loadLevel(String levelName, String[] levelData, String nextLevel) {
+        loadLevel(levelName, new StringLevelSource(levelData), nextLevel);
+    }
+
+    // Replace the current level. Its entities are spawned window by window as the camera
+    // approaches them, so the cost of loading doesn't depend on the width of the level.
+    public void loadLevel(String levelName, LevelSource source, String nextLevel) {
+        GameEvents.LevelLoad event = new GameEvents.LevelLoad();
+        event.begin();
+        this.levelName = levelName;
+        this.levelSource = source;
+        this.nextLevel = nextLevel;
+
+        // Timers belong to the old level, except the player's invincibility which carries over
+        long invincibleTicks = invincibilityTimer.isScheduled() ? invincibilityTimer.getDeadline() - scheduler.getTick() : 0;
+        scheduler.clear();
+        if (invincibleTicks > 0) {
+            scheduler.schedule(invincibilityTimer, (int) invincibleTicks);
+        }
+
+        entities.clear();
+        for (CannonBall cannonBall : projectiles) {
+            projectilePool.release(cannonBall);
+        }
+        projectiles.clear();
+        projectileCells.clear();
+        killedEnemyCells.clear();
+
+        tileGrid.load(source);
+        levelWidth = tileGrid.getWidth();
+        spawnedWindows = new boolean[tileGrid.getWindowCount()];
+        firstSpawnedWindow = 0;
+        lastSpawnedWindow = -1;
+
+        // Reset player position and camera
+        player.spawn(SPAWN_X, SPAWN_Y);
+        cameraLeft = 0;
+
+        for (WorldListener listener : listeners) {
+            listener.onLevelLoaded(levelName);
+        }
+        streamWindows();
+
+        if (event.shouldCommit()) {
+            event.level = levelName;
+            event.columns = source.getColumns();
+            event.enemies = entities.getHostiles().size();
+            event.commit();
+        }
+    }
+
+    // Spawn the windows near the camera and release the ones left far behind
+    private void streamWindows() {
+        int first = Math.max(windowAt(cameraLeft - STREAM_MARGIN), 0);
+        int last = Math.min(windowAt(cameraLeft + VIEW_WIDTH + STREAM_MARGIN), spawnedWindows.length - 1);
+        if (first == firstSpawnedWindow && last == lastSpawnedWindow) {
+            return; // The camera is still within the same windows
+        }
+        firstSpawnedWindow = first;
+        lastSpawnedWindow = last;
+
+        int keepFirst = windowAt(cameraLeft - RELEASE_MARGIN);
+        int keepLast = windowAt(cameraLeft + VIEW_WIDTH + RELEASE_MARGIN);
+        for (int window = 0; window < spawnedWindows.length; window++) {
+            if (window >= first && window <= last) {
+                if (!spawnedWindows[window]) {
+                    spawnWindow(window);
+                }
+            } else if (spawnedWindows[window] && (window < keepFirst || window > keepLast)) {
+                releaseWindow(window);
+            }
+        }
+        tileGrid.releaseWindowsOutside(keepFirst, keepLast);
+    }
+
+    // Column window containing the x coordinate
+    private static int windowAt(double x) {
+        return TileGrid.windowOf((int) Math.floor(x / TileGrid.TILE_SIZE));
+    }
+
+    // Create the entities of one column window
+    private void spawnWindow(int window) {
+        spawnedWindows[window] = true;
+        int firstColumn = window * TileGrid.WINDOW_COLUMNS;
+        int lastColumn = Math.min(firstColumn + TileGrid.WINDOW_COLUMNS, levelSource.getColumns()) - 1;
+
+        levelSource.readEntities(firstColumn, lastColumn, this::spawnEntity);
+    }
+
+    private void spawnEntity(int col, int row, char code) {
+        if (code >= '2' && code <= '4' && killedEnemyCells.contains(cellIndex(col, row))) {
+            return; // Killed enemies stay dead when their window comes back
+        }
+        double x = col * TileGrid.TILE_SIZE;
+        double y = row * TileGrid.TILE_SIZE;
+        long entity;
+        switch (code) {
+            case '2': // Regular enemy
+                entity = entities.spawnWalker(x, y);
+                break;
+            case '3': // EnemyCannon
+                entity = entities.spawnCannon(x, y);
+                break;
+            case '4': // Flying enemy
+                entity = entities.spawnFlyer(x, y);
+                break;
+            case '5': // Portal
+                entity = entities.spawnPortal(x, y, nextLevel != null ? nextLevel : "Level1");
+                break;
+            case '6': // Finish Line
+                entity = entities.spawnFinishLine(x, y);
+                break;
+            default:
+                return; // Unknown codes are ignored
+        }
+        for (WorldListener listener : listeners) {
+            listener.onEntitySpawned(entity);
+        }
+    }
+
+    // Drop the entities of a window far from the camera, it is spawned again if the player returns
+    private void releaseWindow(int window) {
+        spawnedWindows[window] = false;
+
+        // Backwards, destroying an entity moves the last body into the freed slot
+        Components.Body bodies = entities.getBodies();
+        for (int i = bodies.size() - 1; i >= 0; i--) {
+            if (windowAt(bodies.getSpawnX(i)) == window) {
+                removeEntity(bodies.entityAt(i));
+            }
+        }
+    }
+
+    private int cellIndex(int col, int row) {
+        return col * levelSource.getRows() + row;
+    }
+
+    // Advance the game by one fixed tick with the given PlayerInput flags
+    public void tick(int input) {
+        GameEvents.Tick event = new GameEvents.Tick();
+        profiler.begin(event.isEnabled()); // Phase times for the overlay or a flight recording
+        event.begin();
+        simulate(input);
+        if (event.shouldCommit()) {
+            event.tick = tick;
+            event.timers = profiler.getLastNanos(FrameProfiler.TIMERS);
+            event.input = profiler.getLastNanos(FrameProfiler.INPUT);
+            event.attack = profiler.getLastNanos(FrameProfiler.ATTACK);
+            event.physics = profiler.getLastNanos(FrameProfiler.PHYSICS);
+            event.streaming = profiler.getLastNanos(FrameProfiler.STREAMING);
+            event.enemies = profiler.getLastNanos(FrameProfiler.ENEMIES);
+            event.projectiles = profiler.getLastNanos(FrameProfiler.PROJECTILES);
+            event.triggers = profiler.getLastNanos(FrameProfiler.TRIGGERS);
+            event.commit();
+        }
+    }
+
+    private void simulate(int input) {
+        tick++;
+        savePositions();
+        scheduler.advance(); // Run the timers due this tick
+        entities.shoot(this);
+        profiler.mark(FrameProfiler.TIMERS);
+
+        boolean left = PlayerInput.isHeld(input, PlayerInput.LEFT);
+        boolean right = PlayerInput.isHeld(input, PlayerInput.RIGHT);
+        boolean attack = PlayerInput.isHeld(input, PlayerInput.ATTACK);
+        boolean down = PlayerInput.isHeld(input, PlayerInput.DOWN);
+        boolean movingRight = true;
+        boolean moving = false;
+
+        // Handle player movement
+        if (PlayerInput.isHeld(input, PlayerInput.JUMP) && player.getY() >= 5) {
+            jumpPlayer(); // Trigger jump logic
+        }
+        if (left && player.getX() >= 5) {
+            movePlayerX(-5); // Move left
+            moving = true;
+            movingRight = false; // Facing left
+        }
+        if (right && player.getX() + 40 <= levelWidth - 5) {
+            movePlayerX(5); // Move right
+            moving = true;
+            movingRight = true; // Facing right
+        }
+
+        // The player only turns around while not attacking
+        player.setMoving(moving);
+        if (moving && !attack && !downwardAttack) {
+            player.setFacingRight(movingRight);
+        }
+        profiler.mark(FrameProfiler.INPUT);
+
+        // Handle attack logic
+        if (attack) {
+            if (!isAttacking) { // Trigger attack hitbox once per attack
+                isAttacking = true;
+                createAttackHitbox();
+            }
+        } else {
+            isAttacking = false;
+        }
+
+        // Handle downward attack, triggered only in mid-air
+        if (down && !player.canJump()) {
+            if (!isAttacking) { // Ensure downward attack hitbox is created once
+                isAttacking = true;
+                createDownwardAttackHitbox();
+            }
+            if (!attack) {
+                downwardAttack = true;
+            }
+        }
+
+        // Stop downward attack when player lands
+        if (player.canJump() && downwardAttack) {
+            downwardAttack = false;
+            isAttacking = false; // Reset attack state
+        }
+        profiler.mark(FrameProfiler.ATTACK);
+
+        // Apply gravity
+        if (player.getVelocityY() < 10) {
+            player.setVelocityY(player.getVelocityY() + 1);
+        }
+        movePlayerY((int) player.getVelocityY());
+
+        // Check if the player falls out of bounds
+        if (player.getY() > 1000) {
+            decreaseHP(4); // Apply damage for falling out of bounds
+        }
+        profiler.mark(FrameProfiler.PHYSICS);
+
+        // Define camera range for activation
+        cameraLeft = cameraLeftFor(player.getX(), cameraLeft);
+        double cameraRight = cameraLeft + VIEW_WIDTH;
+        streamWindows();
+        profiler.mark(FrameProfiler.STREAMING);
+
+        // Check collisions with the player, then move the enemies within active range.
+        // Contact uses the positions before the move, as each enemy was checked before moving.
+        entities.forEachHostileIn(player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT, false, contactHit);
+        entities.patrol(cameraLeft, cameraRight);
+        entities.aim(cameraLeft, cameraRight, player.getX());
+        entities.applyGravity();
+        profiler.mark(FrameProfiler.ENEMIES);
+
+        // Update projectiles
+        updateCannonBalls();
+        profiler.mark(FrameProfiler.PROJECTILES);
+
+        // Check for portal collision
+        long portal = entities.findTrigger(Components.Trigger.LOAD_LEVEL, player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT);
+        if (portal != EntityRegistry.NONE) {
+            Components.Trigger triggers = entities.getTriggers();
+            loadLevel(triggers.getTargetLevel(triggers.indexOf(portal)));
+            profiler.mark(FrameProfiler.TRIGGERS);
+            return; // Exit the update loop to prevent unnecessary processing
+        }
+
+        if (entities.findTrigger(Components.Trigger.VICTORY, player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT) != EntityRegistry.NONE) {
+            for (WorldListener listener : listeners) {
+                listener.onVictory();
+            }
+            profiler.mark(FrameProfiler.TRIGGERS);
+            return; // Exit the update loop to prevent further processing
+        }
+
+        // Check if the player is dead
+        if (player.getHp() <= 0) {
+            resetGame();
+        }
+        profiler.mark(FrameProfiler.TRIGGERS);
+    }
+
+    // Fire a cannonball from the pool during this tick, returns null if all are in flight
+    public CannonBall spawnProjectile(double x, double y, double speed, int health) {
+        CannonBall cannonBall = projectilePool.obtain(x, y, speed, health);
+        GameEvents.ProjectileSpawn event = new GameEvents.ProjectileSpawn();
+        if (event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.live = projectiles.size() + (cannonBall != null ? 1 : 0);
+            event.exhausted = cannonBall == null;
+            event.commit();
+        }
+        if (cannonBall == null) {
+            return null; // Too many cannonballs already, skip this shot
+        }
+        projectiles.add(cannonBall);
+        projectileCells.insert(cannonBall.getId(), x, y, CannonBall.SIZE, CannonBall.SIZE);
+        for (WorldListener listener : listeners) {
+            listener.onProjectileSpawned(cannonBall);
+        }
+        return cannonBall;
+    }
+
+    private void savePositions() {
+        player.savePosition();
+        entities.savePositions();
+        for (CannonBall cannonBall : projectiles) {
+            cannonBall.savePosition();
+        }
+    }
+
+    // Package-private so the benchmarks can time each stage of a tick on its own
+    void updateCannonBalls() {
+        Iterator<CannonBall> iterator = projectiles.iterator();
+        while (iterator.hasNext()) {
+            CannonBall cannonBall = iterator.next();
+            cannonBall.updatePosition();
+
+            // Check collision with player, or remove the cannonball once it is destroyed
+            boolean hitPlayer = cannonBall.checkCollision(player);
+            if (hitPlayer) {
+                takeDamageFromEnemy(20); // Cannonball deals 20 damage
+            }
+            if (hitPlayer || !cannonBall.isAlive()) {
+                iterator.remove();
+                notifyProjectileRemoved(cannonBall);
+            } else {
+                projectileCells.update(cannonBall.getId(), cannonBall.getX(), cannonBall.getY(), CannonBall.SIZE, CannonBall.SIZE);
+            }
+        }
+    }
+
+    // Tell the listeners before the entity's slot can be reused, then destroy it
+    private void removeEntity(long entity) {
+        if (!entities.isAlive(entity)) {
+            return; // Already released with its window
+        }
+        for (WorldListener listener : listeners) {
+            listener.onEntityRemoved(entity);
+        }
+        entities.destroy(entity);
+    }
+
+    void createDownwardAttackHitbox() {
+        double hitboxWidth = Player.WIDTH * 0.5; // Adjust hitbox size
+        double hitboxHeight = Player.HEIGHT * 0.3;
+        double hitboxX = player.getX() + (Player.WIDTH - hitboxWidth) / 2;
+        double hitboxY = player.getY() + Player.HEIGHT;
+
+        // Check collision with enemies
+        entities.forEachHostileIn(hitboxX, hitboxY, hitboxWidth, hitboxHeight, true, downwardAttackHit);
+
+        // Check collision with cannonballs
+        if (hitProjectiles(hitboxX, hitboxY, hitboxWidth, hitboxHeight)) {
+            bounce();
+        }
+    }
+
+    void createAttackHitbox() {
+        double offsetX = player.isFacingRight() ? 40 : -40;
+        double hitboxX = player.getX() + offsetX;
+        double hitboxY = player.getY();
+
+        // Check collision with enemies
+        entities.forEachHostileIn(hitboxX, hitboxY, 40, 40, true, attackHit);
+
+        // Check collision with cannonballs
+        hitProjectiles(hitboxX, hitboxY, 40, 40);
+    }
+
+    // Damage the cannonballs overlapping a hitbox, true if any was hit.
+    // Only the cannonballs in the hash cells under the hitbox are tested.
+    private boolean hitProjectiles(double hitboxX, double hitboxY, double hitboxWidth, double hitboxHeight) {
+        boolean hit = false;
+        boolean finished = false; // A hit cannonball had already finished exploding
+        int count = projectileCells.query(hitboxX, hitboxY, hitboxWidth, hitboxHeight);
+        for (int r = 0; r < count; r++) {
+            CannonBall cannonBall = projectilePool.get(projectileCells.getResult(r));
+            if (cannonBall.intersects(hitboxX, hitboxY, hitboxWidth, hitboxHeight)) {
+                cannonBall.takeDamage(50); // Destroy the cannonball
+                hit = true;
+                finished |= !cannonBall.isAlive();
+            }
+        }
+        if (finished) {
+            Iterator<CannonBall> iterator = projectiles.iterator();
+            while (iterator.hasNext()) {
+                CannonBall cannonBall = iterator.next();
+                if (!cannonBall.isAlive()) {
+                    iterator.remove();
+                    notifyProjectileRemoved(cannonBall);
+                }
+            }
+        }
+        return hit;
+    }
+
+    // Damage an enemy and schedule its removal if this hit killed it
+    private void damageEnemy(long entity, int damage) {
+        if (entities.damage(entity, damage)) {
+            Components.Body bodies = entities.getBodies();
+            int i = bodies.indexOf(entity);
+            killedEnemyCells.add(cellIndex((int) (bodies.getSpawnX(i) / TileGrid.TILE_SIZE),
+                (int) (bodies.getSpawnY(i) / TileGrid.TILE_SIZE)));
+            // Keep a killed enemy around for its death animation before it is removed.
+            // A stale handle is ignored, in case its window was released in the meantime.
+            scheduler.schedule(ENEMY_REMOVAL_TICKS, () -> removeEntity(entity));
+            GameEvents.EnemyDeath event = new GameEvents.EnemyDeath();
+            if (event.shouldCommit()) {
+                event.type = Entities.kindName(bodies.getKind(i));
+                event.x = bodies.getX(i);
+                event.y = bodies.getY(i);
+                event.tick = tick;
+                event.commit();
+            }
+            for (WorldListener listener : listeners) {
+                listener.onEntityKilled(entity);
+            }
+        }
+    }
+
+    // Bounce the player upward off something hit with the downward attack
+    private void bounce() {
+        player.setVelocityY(-29);
+        player.setCanJump(false); // Temporarily disable jumping
+    }
+
+    // Tell the listeners a cannonball is gone and return it to the pool
+    private void notifyProjectileRemoved(CannonBall cannonBall) {
+        GameEvents.ProjectileDespawn event = new GameEvents.ProjectileDespawn();
+        if (event.shouldCommit()) {
+            event.x = cannonBall.getX();
+            event.y = cannonBall.getY();
+            event.live = projectiles.size();
+            event.commit();
+        }
+        for (WorldListener listener : listeners) {
+            listener.onProjectileRemoved(cannonBall);
+        }
+        projectileCells.remove(cannonBall.getId());
+        projectilePool.release(cannonBall);
+    }
+
+    private void takeDamageFromEnemy(int damage) {
+        if (!player.isInvincible()) {
+            decreaseHP(damage);
+            startInvincibility(INVINCIBILITY_TICKS);
+            for (WorldListener listener : listeners) {
+                listener.onPlayerDamaged();
+            }
+
+            double bounceDistance = player.isFacingRight() ? -30 : 30;
+            player.setX(player.getX() + bounceDistance);
+        }
+    }
+
+    // Make the player unhurtable for the given number of ticks
+    public void startInvincibility(int ticks) {
+        player.setInvincible(true);
+        scheduler.schedule(invincibilityTimer, ticks);
+    }
+
+    private void endInvincibility() {
+        invincibilityTimer.cancel();
+        player.setInvincible(false);
+        for (WorldListener listener : listeners) {
+            listener.onInvincibilityEnded();
+        }
+    }
+
+    private void decreaseHP(int amount) {
+        player.setHp(player.getHp() - amount);
+    }
+
+    private void resetGame() {
+        for (WorldListener listener : listeners) {
+            listener.onPlayerDied();
+        }
+
+        // Reset player properties and send the player back to stage 1
+        player.setHp(Player.MAX_HP);
+        loadLevel("Level1");
+    }
+
+    private void movePlayerX(int value) {
+        double dx = tileCollider.sweepX(player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT, value);
+        player.setX(player.getX() + dx);
+    }
+
+    private void movePlayerY(int value) {
+        double dy = tileCollider.sweepY(player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT, value);
+        player.setY(player.getY() + dy);
+
+        // Landing on top of a tile lets the player jump again
+        if (value > 0 && tileCollider.hasHit()) {
+            player.setCanJump(true);
+            for (WorldListener listener : listeners) {
+                listener.onPlayerLanded();
+            }
+        }
+    }
+
+    private void jumpPlayer() {
+        if (player.canJump()) {
+            player.setVelocityY(player.getVelocityY() - 35);
+            player.setCanJump(false);
+            for (WorldListener listener : listeners) {
+                listener.onPlayerJumped();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// WorldListener.java
+
+package application;
+
+// Receives game events from the World so rendering and audio can react to them
+public interface WorldListener {
+
+    default void onLevelLoaded(String levelName) {
+    }
+
+    default void onPlayerJumped() {
+    }
+
+    default void onPlayerLanded() {
+    }
+
+    default void onPlayerDamaged() {
+    }
+
+    default void onInvincibilityEnded() {
+    }
+
+    default void onPlayerDied() {
+    }
+
+    // Enemies, portals and finish lines, read their components from World.getEntities()
+    default void onEntitySpawned(long entity) {
+    }
+
+    // An entity's health ran out, it stays in the world for its death animation
+    default void onEntityKilled(long entity) {
+    }
+
+    // Called while the entity's components can still be read, its handle goes stale right after
+    default void onEntityRemoved(long entity) {
+    }
+
+    default void onProjectileSpawned(CannonBall cannonBall) {
+    }
+
+    default void onProjectileRemoved(CannonBall cannonBall) {
+    }
+
+    default void onVictory() {
+    }
+}